@@ -0,0 +1,164 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.ExecutionTrace;
+import edu.njit.cs341.Recognizer;
+import edu.njit.cs341.TerminalTokenizer;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Checks the bytes the recognition paths allocate against fixed budgets, with the allocated bytes
+ * counter of the current thread. A budget has a part per step and a part per symbol of the
+ * deepest stack of the run, for growing the stack by doubling. The accept-only paths should
+ * allocate nothing per step, and recording a trace a few ints per step; a path that starts boxing
+ * or copying per symbol blows its budget by an order of magnitude. Every path is run until the
+ * JIT has compiled it before it is measured.
+ *
+ * Runs as a test of the benchmarks module (AllocationBudgetsTest), so a path over its budget fails
+ * the build. It can also be run on its own; it prints a line per path and exits with status 1 if a
+ * budget is exceeded:
+ *
+ *   mvn -B package && java -cp benchmarks/target/benchmarks.jar edu.njit.cs341.benchmarks.AllocationBudgets
+ */
+public class AllocationBudgets {
+
+    private static final int LENGTH = 1 << 18;
+    private static final int WARMUP_RUNS = 30;
+    private static final int MEASURED_RUNS = 20;
+
+    // an int array grown by doubling has copied less than twice its final size
+    private static final double ACCEPT_PER_STEP = 0.5;
+    private static final double ACCEPT_PER_DEPTH = 16;
+    // three ints per step and a shared stack node per symbol pushed, all in arrays grown by doubling
+    private static final double TRACE_PER_STEP = 64;
+    private static final double TRACE_PER_DEPTH = 64;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * A path to measure: runs it once and returns the number of steps it took, input symbols
+     * for the accept-only paths and transitions for traces
+     */
+    private static final class Path {
+        final String name;
+        final double perStep;     // bytes
+        final double perDepth;    // bytes per symbol of the deepest stack
+        final int maxDepth;
+        final LongSupplier run;
+
+        Path(String name, double perStep, double perDepth, int maxDepth, LongSupplier run) {
+            this.name = name;
+            this.perStep = perStep;
+            this.perDepth = perDepth;
+            this.maxDepth = maxDepth;
+            this.run = run;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (!isSupported()) {
+            System.err.println("This JVM does not count allocated bytes per thread");
+            System.exit(2);
+        }
+        if (!measure(System.out).isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return true if this JVM counts the bytes allocated by a thread
+     */
+    static boolean isSupported() {
+        return THREADS.isThreadAllocatedMemorySupported();
+    }
+
+    /**
+     * Measures every path against its budget
+     *
+     * @param out where a line per path is printed
+     * @return names of the paths that exceeded their budget
+     */
+    static List<String> measure(PrintStream out) throws Exception {
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        List<Path> paths = new ArrayList<>();
+        for (String language : new String[] {Automata.PARENTHESES, Automata.ANBN, Automata.PALINDROME}) {
+            CompiledDPDA compiled = Automata.create(language).compile();
+            String input = Automata.input(language, LENGTH);
+            int[] symbols = new int[input.length()];
+            for (int i = 0; i < symbols.length; i++) {
+                symbols[i] = compiled.symbolOf(input.charAt(i));
+            }
+            int maxDepth = maxDepth(compiled.trace(symbols));
+            paths.add(new Path(language + " accepts(int[])", ACCEPT_PER_STEP, ACCEPT_PER_DEPTH, maxDepth, () -> {
+                check(compiled.accepts(symbols));
+                return symbols.length;
+            }));
+            paths.add(new Path(language + " recognizer", ACCEPT_PER_STEP, ACCEPT_PER_DEPTH, maxDepth, () -> {
+                Recognizer recognizer = compiled.newRecognizer();
+                check(recognizer.feed(input) && recognizer.finish());
+                return recognizer.getPosition();
+            }));
+            paths.add(new Path(language + " trace", TRACE_PER_STEP, TRACE_PER_DEPTH, maxDepth, () -> {
+                ExecutionTrace trace = compiled.trace(symbols);
+                check(trace.isAccepted());
+                return trace.steps();
+            }));
+        }
+        CompiledDPDA blocks = Automata.blocks().compile();
+        String blocksInput = Automata.blocksInput(LENGTH);
+        TerminalTokenizer tokenizer = new TerminalTokenizer(blocks, true);
+        int blocksDepth = 0;
+        int depth = 0;
+        for (String keyword : blocksInput.split(" ")) {
+            depth += (keyword.equals("begin") ? 1 : keyword.equals("end") ? -1 : 0);
+            blocksDepth = Math.max(blocksDepth, depth);
+        }
+        paths.add(new Path("blocks recognizer", ACCEPT_PER_STEP, ACCEPT_PER_DEPTH, blocksDepth, () -> {
+            Recognizer recognizer = blocks.newRecognizer(tokenizer);
+            check(recognizer.feed(blocksInput) && recognizer.finish());
+            return recognizer.getPosition();
+        }));
+
+        List<String> exceeded = new ArrayList<>();
+        for (Path path : paths) {
+            for (int k = 0; k < WARMUP_RUNS; k++) {
+                path.run.getAsLong();
+            }
+            long steps = 0;
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            for (int k = 0; k < MEASURED_RUNS; k++) {
+                steps += path.run.getAsLong();
+            }
+            long bytes = THREADS.getCurrentThreadAllocatedBytes() - before;
+            double budget = path.perStep * steps + path.perDepth * path.maxDepth * MEASURED_RUNS;
+            boolean ok = bytes <= budget;
+            if (!ok) {
+                exceeded.add(path.name);
+            }
+            out.printf("%-28s %10.3f bytes/step  budget %10.3f  max depth %7d  %s%n", path.name,
+                    (double) bytes / steps, budget / steps, path.maxDepth, ok ? "ok" : "EXCEEDED");
+        }
+        return exceeded;
+    }
+
+    private static int maxDepth(ExecutionTrace trace) {
+        int max = 0;
+        for (int k = 0; k <= trace.steps(); k++) {
+            max = Math.max(max, trace.stackDepth(k));
+        }
+        return max;
+    }
+
+    private static void check(boolean accepted) {
+        if (!accepted) {
+            throw new IllegalStateException("Input of the language was rejected");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.AlphabetFilter;
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.Recognizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balanced parentheses with a byte outside the alphabet near the end: the alphabet pre-pass alone,
+ * the automaton alone, and the pre-pass followed by the automaton only if it passes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlphabetFilterBenchmark {
+
+    @Param({"16777216"})
+    public int length;
+
+    private CompiledDPDA compiled;
+    private AlphabetFilter filter;
+    private ByteBuffer input;
+
+    @Setup
+    public void setup() throws Exception {
+        compiled = Automata.create(Automata.PARENTHESES).compile();
+        filter = compiled.alphabetFilter();
+        Random random = new Random(22);
+        input = ByteBuffer.allocateDirect(length);
+        int depth = 0;
+        for (int i = 0; i < length - 1; i++) {
+            boolean open = depth == 0 || (depth < length - 1 - i && random.nextBoolean());
+            input.put((byte) (open ? '(' : ')'));
+            depth += open ? 1 : -1;
+        }
+        input.put((byte) 'x');
+        input.flip();
+    }
+
+    @Benchmark
+    public int filter() {
+        return filter.firstInvalid(input);
+    }
+
+    @Benchmark
+    public boolean recognize() {
+        Recognizer recognizer = compiled.newRecognizer();
+        return recognizer.feed(input.duplicate()) && recognizer.finish();
+    }
+
+    @Benchmark
+    public boolean filterThenRecognize() {
+        if (filter.firstInvalid(input) >= 0) {
+            return false;
+        }
+        Recognizer recognizer = compiled.newRecognizer();
+        return recognizer.feed(input.duplicate()) && recognizer.finish();
+    }
+}
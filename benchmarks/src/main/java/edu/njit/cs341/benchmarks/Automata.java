@@ -0,0 +1,274 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.DPDA;
+import edu.njit.cs341.InvalidStateException;
+import edu.njit.cs341.InvalidSymbolException;
+import edu.njit.cs341.StackToken;
+import edu.njit.cs341.TerminalToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Automata and inputs for the standard languages used by the benchmarks
+ */
+final class Automata {
+
+    static final String PARENTHESES = "parentheses";
+    static final String ANBN = "anbn";
+    static final String PALINDROME = "palindrome";
+    static final String RANDOM = "random";
+
+    // size of the random automaton
+    static final int RANDOM_STATES = 64;
+    static final int RANDOM_TERMINALS = 26;
+    static final int RANDOM_STACK_SYMBOLS = 16;
+
+    private Automata() {
+    }
+
+    static DPDA create(String language) throws InvalidStateException, InvalidSymbolException {
+        switch (language) {
+            case PARENTHESES:
+                return balancedParentheses();
+            case ANBN:
+                return anbn();
+            case PALINDROME:
+                return markedPalindromes();
+            case RANDOM:
+                return random(new Random(42), RANDOM_STATES, RANDOM_TERMINALS, RANDOM_STACK_SYMBOLS);
+            default:
+                throw new IllegalArgumentException("Unknown language: " + language);
+        }
+    }
+
+    /**
+     * @return an input of the language of about the given length, random inputs for the random
+     * automaton
+     */
+    static String input(String language, int length) {
+        Random random = new Random(length);
+        StringBuilder builder = new StringBuilder(length);
+        switch (language) {
+            case PARENTHESES:
+                // random nesting that is closed again at the end
+                int depth = 0;
+                while (builder.length() + depth < length) {
+                    if (depth > 0 && random.nextBoolean()) {
+                        builder.append(')');
+                        depth--;
+                    } else {
+                        builder.append('(');
+                        depth++;
+                    }
+                }
+                while (depth-- > 0) {
+                    builder.append(')');
+                }
+                break;
+            case ANBN:
+                char[] as = new char[length / 2];
+                Arrays.fill(as, 'a');
+                char[] bs = new char[length / 2];
+                Arrays.fill(bs, 'b');
+                builder.append(as).append(bs);
+                break;
+            case PALINDROME:
+                StringBuilder half = new StringBuilder();
+                for (int i = 0; i < (length - 1) / 2; i++) {
+                    half.append(random.nextBoolean() ? 'a' : 'b');
+                }
+                builder.append(half).append('c').append(new StringBuilder(half).reverse());
+                break;
+            case RANDOM:
+                for (int i = 0; i < length; i++) {
+                    builder.append((char) ('a' + random.nextInt(RANDOM_TERMINALS)));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown language: " + language);
+        }
+        return builder.toString();
+    }
+
+    private static List<StackToken> stack(String... symbols) {
+        List<StackToken> tokens = new ArrayList<>();
+        for (String symbol : symbols) {
+            tokens.add(new StackToken(symbol));
+        }
+        return tokens;
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    /**
+     * Balanced parentheses; $ marks the bottom of the stack while a group is open
+     */
+    static DPDA balancedParentheses() throws InvalidStateException, InvalidSymbolException {
+        DPDA pda = new DPDA(2, 0, set("(", ")"), set("X", "$"), new HashSet<>(Arrays.asList(0)));
+        pda.addTransition(0, new TerminalToken("("), stack(), 1, stack("X", "$"));
+        pda.addTransition(1, new TerminalToken("("), stack("X"), 1, stack("X", "X"));
+        pda.addTransition(1, new TerminalToken(")"), stack("X"), 1, stack());
+        pda.addTransition(1, TerminalToken.EPSILON, stack("$"), 0, stack());
+        return pda;
+    }
+
+    /**
+     * a^n b^n for n >= 0
+     */
+    static DPDA anbn() throws InvalidStateException, InvalidSymbolException {
+        DPDA pda = new DPDA(4, 0, set("a", "b"), set("A", "$"), new HashSet<>(Arrays.asList(0, 3)));
+        pda.addTransition(0, new TerminalToken("a"), stack(), 1, stack("A", "$"));
+        pda.addTransition(1, new TerminalToken("a"), stack("A"), 1, stack("A", "A"));
+        pda.addTransition(1, new TerminalToken("b"), stack("A"), 2, stack());
+        pda.addTransition(2, new TerminalToken("b"), stack("A"), 2, stack());
+        pda.addTransition(2, TerminalToken.EPSILON, stack("$"), 3, stack());
+        return pda;
+    }
+
+    /**
+     * a^n b^n for n >= 1 made complete the way textbooks do it: every wrong symbol leads to an error
+     * state that reads the rest of the input
+     */
+    static DPDA completeAnbn() throws InvalidStateException, InvalidSymbolException {
+        DPDA pda = new DPDA(5, 0, set("a", "b"), set("A", "$"), new HashSet<>(Arrays.asList(3)));
+        pda.addTransition(0, new TerminalToken("a"), stack(), 1, stack("A", "$"));
+        pda.addTransition(0, new TerminalToken("b"), stack(), 4, stack());
+        pda.addTransition(1, new TerminalToken("a"), stack("A"), 1, stack("A", "A"));
+        pda.addTransition(1, new TerminalToken("b"), stack("A"), 2, stack());
+        pda.addTransition(2, new TerminalToken("b"), stack("A"), 2, stack());
+        pda.addTransition(2, new TerminalToken("a"), stack("A"), 4, stack());
+        pda.addTransition(2, TerminalToken.EPSILON, stack("$"), 3, stack());
+        pda.addTransition(3, new TerminalToken("a"), stack(), 4, stack());
+        pda.addTransition(3, new TerminalToken("b"), stack(), 4, stack());
+        pda.addTransition(4, new TerminalToken("a"), stack(), 4, stack());
+        pda.addTransition(4, new TerminalToken("b"), stack(), 4, stack());
+        return pda;
+    }
+
+    /**
+     * w c reverse(w) for w over {a, b}
+     */
+    static DPDA markedPalindromes() throws InvalidStateException, InvalidSymbolException {
+        DPDA pda = new DPDA(4, 0, set("a", "b", "c"), set("A", "B", "$"), new HashSet<>(Arrays.asList(3)));
+        pda.addTransition(0, TerminalToken.EPSILON, stack(), 1, stack("$"));
+        pda.addTransition(1, new TerminalToken("a"), stack(), 1, stack("A"));
+        pda.addTransition(1, new TerminalToken("b"), stack(), 1, stack("B"));
+        pda.addTransition(1, new TerminalToken("c"), stack(), 2, stack());
+        pda.addTransition(2, new TerminalToken("a"), stack("A"), 2, stack());
+        pda.addTransition(2, new TerminalToken("b"), stack("B"), 2, stack());
+        pda.addTransition(2, TerminalToken.EPSILON, stack("$"), 3, stack());
+        return pda;
+    }
+
+    /**
+     * Nested begin ... end blocks of x; statements, an alphabet of keywords
+     */
+    static DPDA blocks() throws InvalidStateException, InvalidSymbolException {
+        DPDA pda = new DPDA(1, 0, set("begin", "end", "x;"), set("B"), new HashSet<>(Arrays.asList(0)));
+        pda.addTransition(0, new TerminalToken("begin"), stack(), 0, stack("B"));
+        pda.addTransition(0, new TerminalToken("end"), stack("B"), 0, stack());
+        pda.addTransition(0, new TerminalToken("x;"), stack(), 0, stack());
+        return pda;
+    }
+
+    /**
+     * @return blocks of about the given length with the keywords separated by spaces
+     */
+    static String blocksInput(int length) {
+        Random random = new Random(length);
+        StringBuilder builder = new StringBuilder(length);
+        int depth = 0;
+        while (builder.length() + 4 * depth < length) {
+            int choice = random.nextInt(3);
+            if (choice == 0) {
+                builder.append("begin ");
+                depth++;
+            } else if (choice == 1 && depth > 0) {
+                builder.append("end ");
+                depth--;
+            } else {
+                builder.append("x; ");
+            }
+        }
+        while (depth-- > 0) {
+            builder.append("end ");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Random automaton that has a move for every state and input symbol, either on any stack top or
+     * on each stack symbol
+     */
+    static DPDA random(Random random, int nStates, int nTerminals, int nStackSymbols)
+            throws InvalidStateException, InvalidSymbolException {
+        DPDA pda = new DPDA(nStates, 0, terminals(nTerminals), stackSymbols(nStackSymbols), acceptStates(random, nStates));
+        for (Object[] transition : randomTransitions(random, nStates, nTerminals, nStackSymbols)) {
+            addTransition(pda, transition);
+        }
+        return pda;
+    }
+
+    static Set<String> terminals(int n) {
+        Set<String> terminals = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            terminals.add(String.valueOf((char) ('a' + i)));
+        }
+        return terminals;
+    }
+
+    static Set<String> stackSymbols(int n) {
+        Set<String> symbols = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            symbols.add("S" + i);
+        }
+        return symbols;
+    }
+
+    static Set<Integer> acceptStates(Random random, int nStates) {
+        Set<Integer> acceptStates = new HashSet<>();
+        for (int i = 0; i < nStates; i++) {
+            if (random.nextBoolean()) {
+                acceptStates.add(i);
+            }
+        }
+        return acceptStates;
+    }
+
+    /**
+     * @return transitions as (currState, inputSymbol, stackTop, nextState, stackTopReplacement)
+     */
+    static List<Object[]> randomTransitions(Random random, int nStates, int nTerminals, int nStackSymbols) {
+        List<Object[]> transitions = new ArrayList<>();
+        for (int state = 0; state < nStates; state++) {
+            for (int t = 0; t < nTerminals; t++) {
+                TerminalToken input = new TerminalToken(String.valueOf((char) ('a' + t)));
+                if (random.nextBoolean()) {
+                    transitions.add(new Object[] {state, input, stack(), random.nextInt(nStates),
+                            stack("S" + random.nextInt(nStackSymbols))});
+                } else {
+                    for (int s = 0; s < nStackSymbols; s++) {
+                        List<StackToken> replacement = (random.nextBoolean() ? stack()
+                                : stack("S" + random.nextInt(nStackSymbols), "S" + s));
+                        transitions.add(new Object[] {state, input, stack("S" + s), random.nextInt(nStates),
+                                replacement});
+                    }
+                }
+            }
+        }
+        return transitions;
+    }
+
+    @SuppressWarnings("unchecked")
+    static void addTransition(DPDA pda, Object[] transition) throws InvalidStateException, InvalidSymbolException {
+        pda.addTransition((Integer) transition[0], (TerminalToken) transition[1],
+                (List<StackToken>) transition[2], (Integer) transition[3], (List<StackToken>) transition[4]);
+    }
+}
@@ -0,0 +1,67 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.Recognizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of checking many short strings, one after the other and in parallel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({Automata.PARENTHESES, Automata.PALINDROME})
+    public String language;
+
+    @Param({"100000"})
+    public int count;
+
+    private CompiledDPDA compiled;
+    private List<String> inputs;
+
+    @Setup
+    public void setup() throws Exception {
+        compiled = Automata.create(language).compile();
+        inputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            inputs.add(Automata.input(language, 8 + i % 56));
+        }
+    }
+
+    @Benchmark
+    public int sequential() {
+        Recognizer recognizer = compiled.newRecognizer();
+        int accepted = 0;
+        for (String input : inputs) {
+            recognizer.reset();
+            if (recognizer.feed(input) && recognizer.finish()) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    public boolean[] parallel() {
+        return compiled.acceptsAll(inputs);
+    }
+}
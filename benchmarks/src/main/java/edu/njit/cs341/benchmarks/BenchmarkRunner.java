@@ -0,0 +1,24 @@
+package edu.njit.cs341.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached so that allocation rates (gc.alloc.rate.norm,
+ * bytes per operation) are reported next to the timings. Takes the usual JMH command line options,
+ * e.g. a regular expression selecting the benchmarks to run:
+ *
+ *   mvn -B package && java -jar benchmarks/target/benchmarks.jar Recognition -p length=4096
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(options)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
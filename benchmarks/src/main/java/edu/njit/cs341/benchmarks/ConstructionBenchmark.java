@@ -0,0 +1,96 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.DPDA;
+import edu.njit.cs341.DPDABuilder;
+import edu.njit.cs341.StackToken;
+import edu.njit.cs341.TerminalToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building an automaton with addTransition() or a DPDABuilder and of compiling and
+ * optimizing it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstructionBenchmark {
+
+    // terminals of the random automaton, it gets about states * terminals * stack symbols / 2 transitions
+    @Param({"4", "26"})
+    public int terminals;
+
+    @Param({"16", "64"})
+    public int stackSymbols;
+
+    private Set<String> terminalSet;
+    private Set<String> stackSymbolSet;
+    private Set<Integer> acceptStates;
+    private List<Object[]> transitions;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        terminalSet = Automata.terminals(terminals);
+        stackSymbolSet = Automata.stackSymbols(stackSymbols);
+        acceptStates = Automata.acceptStates(random, Automata.RANDOM_STATES);
+        transitions = Automata.randomTransitions(random, Automata.RANDOM_STATES, terminals, stackSymbols);
+    }
+
+    @Benchmark
+    public DPDA addTransitions() throws Exception {
+        return build();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public DPDA builder() throws Exception {
+        DPDABuilder builder = new DPDABuilder(Automata.RANDOM_STATES)
+                .terminals(terminalSet.toArray(new String[0]))
+                .stackSymbols(stackSymbolSet.toArray(new String[0]));
+        for (int state : acceptStates) {
+            builder.accept(state);
+        }
+        for (Object[] transition : transitions) {
+            builder.transition((Integer) transition[0], (TerminalToken) transition[1],
+                    (List<StackToken>) transition[2], (Integer) transition[3], (List<StackToken>) transition[4]);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public CompiledDPDA compile() throws Exception {
+        return build().compile();
+    }
+
+    @Benchmark
+    public CompiledDPDA optimize() throws Exception {
+        return build().compile().optimize();
+    }
+
+    private DPDA build() throws Exception {
+        DPDA pda = new DPDA(Automata.RANDOM_STATES, 0, terminalSet, stackSymbolSet, acceptStates);
+        for (Object[] transition : transitions) {
+            Automata.addTransition(pda, transition);
+        }
+        return pda;
+    }
+}
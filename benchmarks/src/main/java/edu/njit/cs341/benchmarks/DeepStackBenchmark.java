@@ -0,0 +1,65 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.Recognizer;
+import edu.njit.cs341.StackMemory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parentheses nested very deep, with the whole stack on the heap or with all but its top spilled
+ * to direct buffers and a mapped file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeepStackBenchmark {
+
+    @Param({"16777216"})
+    public int depth;
+
+    private CompiledDPDA compiled;
+    private StackMemory memory;
+    private ByteBuffer input;
+
+    @Setup
+    public void setup() throws Exception {
+        compiled = Automata.create(Automata.PARENTHESES).compile();
+        memory = new StackMemory(1 << 16, 8L << 20);
+        input = ByteBuffer.allocateDirect(2 * depth);
+        for (int i = 0; i < depth; i++) {
+            input.put((byte) '(');
+        }
+        for (int i = 0; i < depth; i++) {
+            input.put((byte) ')');
+        }
+        input.flip();
+    }
+
+    @Benchmark
+    public boolean heap() {
+        Recognizer recognizer = compiled.newRecognizer();
+        return recognizer.feed(input.duplicate()) && recognizer.finish();
+    }
+
+    @Benchmark
+    public boolean spilled() {
+        Recognizer recognizer = compiled.newRecognizer(memory);
+        return recognizer.feed(input.duplicate()) && recognizer.finish();
+    }
+}
@@ -0,0 +1,60 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * a^n b^n with an error state that reads any input: a word of the language, and a word of the same
+ * length that goes wrong at its third symbol and is rejected once the error state is reached
+ * instead of at the end
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeasibilityBenchmark {
+
+    @Param({"1048576"})
+    public int length;
+
+    private CompiledDPDA compiled;
+    private int[] accepted;
+    private int[] wrong;
+
+    @Setup
+    public void setup() throws Exception {
+        compiled = Automata.completeAnbn().compile();
+        int a = compiled.terminalId("a");
+        int b = compiled.terminalId("b");
+        accepted = new int[length];
+        Arrays.fill(accepted, 0, length / 2, a);
+        Arrays.fill(accepted, length / 2, length, b);
+        wrong = accepted.clone();
+        wrong[1] = b;
+    }
+
+    @Benchmark
+    public boolean accepted() {
+        return compiled.accepts(accepted);
+    }
+
+    @Benchmark
+    public boolean wrong() {
+        return compiled.accepts(wrong);
+    }
+}
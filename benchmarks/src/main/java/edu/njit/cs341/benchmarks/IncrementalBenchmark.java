@@ -0,0 +1,73 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.IncrementalSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small edits to a long document, re-recognized as a whole or incrementally. Every edit inserts a
+ * pair of parentheses close to the previous edit and the next one removes it again, so the
+ * document keeps its length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalBenchmark {
+
+    @Param({"1048576"})
+    public int length;
+
+    private static final int[] NOTHING = new int[0];
+
+    private CompiledDPDA compiled;
+    private IncrementalSession session;
+    private int[] document;
+    private int[] pair;
+    private Random random;
+    private int position;
+    private boolean inserted = false;
+
+    @Setup
+    public void setup() throws Exception {
+        compiled = Automata.create(Automata.PARENTHESES).compile();
+        String input = Automata.input(Automata.PARENTHESES, length);
+        document = new int[input.length()];
+        for (int i = 0; i < document.length; i++) {
+            document[i] = compiled.symbolOf(input.charAt(i));
+        }
+        pair = new int[] {compiled.symbolOf('('), compiled.symbolOf(')')};
+        session = new IncrementalSession(compiled, document, 256);
+        random = new Random(42);
+        position = document.length / 2;
+    }
+
+    @Benchmark
+    public boolean full() {
+        return compiled.accepts(document);
+    }
+
+    @Benchmark
+    public boolean incremental() {
+        if (!inserted) {
+            position = Math.max(0, Math.min(document.length, position + random.nextInt(1024) - 512));
+        }
+        inserted = !inserted;
+        return (inserted ? session.replace(position, position, pair) : session.replace(position, position + 2, NOTHING));
+    }
+}
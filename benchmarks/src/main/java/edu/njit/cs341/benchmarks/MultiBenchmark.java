@@ -0,0 +1,66 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.DPDA;
+import edu.njit.cs341.MultiRecognizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One input checked against all standard automata, one after the other or in a single pass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiBenchmark {
+
+    @Param({"4096", "1048576"})
+    public int length;
+
+    private DPDA[] pdas;
+    private MultiRecognizer multi;
+    private String input;
+
+    @Setup
+    public void setup() throws Exception {
+        String[] languages = {Automata.PARENTHESES, Automata.ANBN, Automata.PALINDROME, Automata.RANDOM};
+        pdas = new DPDA[languages.length];
+        CompiledDPDA[] compiled = new CompiledDPDA[languages.length];
+        for (int k = 0; k < languages.length; k++) {
+            pdas[k] = Automata.create(languages[k]);
+            compiled[k] = pdas[k].compile();
+        }
+        multi = new MultiRecognizer(compiled);
+        input = Automata.input(Automata.PARENTHESES, length);
+    }
+
+    @Benchmark
+    public int separate() {
+        int accepted = 0;
+        for (DPDA pda : pdas) {
+            if (pda.accepts(DPDA.toTerminalTokens(input.toCharArray()))) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    public boolean[] singlePass() {
+        return multi.accepts(input);
+    }
+}
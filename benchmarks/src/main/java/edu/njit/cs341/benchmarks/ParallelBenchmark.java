@@ -0,0 +1,58 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.DPDA;
+import edu.njit.cs341.ParallelRecognizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recognition of one large input by a single thread and split into chunks on the common
+ * fork-join pool
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelBenchmark {
+
+    @Param({Automata.PARENTHESES, Automata.ANBN})
+    public String language;
+
+    @Param({"16777216"})
+    public int length;
+
+    private CompiledDPDA compiled;
+    private ParallelRecognizer parallel;
+    private int[] symbols;
+
+    @Setup
+    public void setup() throws Exception {
+        compiled = Automata.create(language).compile();
+        parallel = new ParallelRecognizer(compiled);
+        symbols = compiled.toSymbols(DPDA.toTerminalTokens(Automata.input(language, length).toCharArray()));
+    }
+
+    @Benchmark
+    public boolean sequential() {
+        return compiled.accepts(symbols);
+    }
+
+    @Benchmark
+    public boolean chunked() {
+        return parallel.accepts(symbols);
+    }
+}
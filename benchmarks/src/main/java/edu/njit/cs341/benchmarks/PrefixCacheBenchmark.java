@@ -0,0 +1,71 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.PrefixCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inputs that share a long header, recognized from scratch or resumed from cached checkpoints
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrefixCacheBenchmark {
+
+    // length of the header shared by all inputs
+    @Param({"65536"})
+    public int header;
+
+    // number of distinct bodies following the header
+    private static final int BODIES = 256;
+
+    private CompiledDPDA compiled;
+    private PrefixCache cache;
+    private String[] inputs;
+    private int next = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        compiled = Automata.create(Automata.PARENTHESES).compile();
+        cache = new PrefixCache(compiled, 1 << 16, BODIES / 2);
+        String prefix = Automata.input(Automata.PARENTHESES, header);
+        prefix = prefix.substring(0, prefix.length() / 2);
+        Random random = new Random(42);
+        inputs = new String[BODIES];
+        for (int k = 0; k < BODIES; k++) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 256; i++) {
+                body.append(random.nextBoolean() ? '(' : ')');
+            }
+            inputs[k] = prefix + body;
+        }
+    }
+
+    @Benchmark
+    public boolean uncached() {
+        next = (next + 1) % BODIES;
+        return compiled.accepts(inputs[next]);
+    }
+
+    @Benchmark
+    public boolean cached() {
+        next = (next + 1) % BODIES;
+        return cache.accepts(inputs[next]);
+    }
+}
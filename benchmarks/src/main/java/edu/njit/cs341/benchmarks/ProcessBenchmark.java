@@ -0,0 +1,51 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.DPDA;
+import edu.njit.cs341.TerminalToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of DPDA.process(), which records every configuration of the run
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProcessBenchmark {
+
+    @Param({Automata.PARENTHESES, Automata.ANBN, Automata.PALINDROME, Automata.RANDOM})
+    public String language;
+
+    @Param({"16", "1024", "65536"})
+    public int length;
+
+    private DPDA pda;
+    private List<TerminalToken> input;
+
+    @Setup
+    public void setup() throws Exception {
+        pda = Automata.create(language);
+        input = DPDA.toTerminalTokens(Automata.input(language, length).toCharArray());
+        pda.compile();
+    }
+
+    @Benchmark
+    public Object process() {
+        return pda.process(input);
+    }
+}
@@ -0,0 +1,91 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.Acceptor;
+import edu.njit.cs341.AcceptorGenerator;
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.DPDA;
+import edu.njit.cs341.Recognizer;
+import edu.njit.cs341.TerminalToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the recognition paths that only answer accept or reject
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecognitionBenchmark {
+
+    @Param({Automata.PARENTHESES, Automata.ANBN, Automata.PALINDROME, Automata.RANDOM})
+    public String language;
+
+    @Param({"16", "4096", "1048576"})
+    public int length;
+
+    private DPDA pda;
+    private CompiledDPDA compiled;
+    private CompiledDPDA optimized;
+    private Acceptor generated;
+    private String input;
+    private List<TerminalToken> tokens;
+    private int[] symbols;
+
+    @Setup
+    public void setup() throws Exception {
+        pda = Automata.create(language);
+        compiled = pda.compile();
+        optimized = compiled.optimize();
+        generated = AcceptorGenerator.generate(compiled);
+        input = Automata.input(language, length);
+        tokens = DPDA.toTerminalTokens(input.toCharArray());
+        symbols = compiled.toSymbols(tokens);
+    }
+
+    @Benchmark
+    public boolean acceptsTokens() {
+        return pda.accepts(tokens);
+    }
+
+    @Benchmark
+    public boolean acceptsSymbols() {
+        return compiled.accepts(symbols);
+    }
+
+    @Benchmark
+    public boolean optimizedSymbols() {
+        // the optimized automaton keeps the terminal ids
+        return optimized.accepts(symbols);
+    }
+
+    @Benchmark
+    public boolean recognizer() {
+        Recognizer recognizer = compiled.newRecognizer();
+        return recognizer.feed(input) && recognizer.finish();
+    }
+
+    @Benchmark
+    public boolean generatedSymbols() {
+        return generated.accepts(symbols);
+    }
+
+    @Benchmark
+    public boolean generatedChars() {
+        return generated.accepts(input);
+    }
+}
@@ -0,0 +1,66 @@
+package edu.njit.cs341.benchmarks;
+
+import edu.njit.cs341.CompiledDPDA;
+import edu.njit.cs341.DPDA;
+import edu.njit.cs341.Recognizer;
+import edu.njit.cs341.TerminalToken;
+import edu.njit.cs341.TerminalTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recognition of an alphabet of keywords, split into tokens in a separate pass or by the
+ * recognizer's tokenizer while recognizing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    @Param({"4096", "1048576"})
+    public int length;
+
+    private DPDA pda;
+    private CompiledDPDA compiled;
+    private TerminalTokenizer tokenizer;
+    private String input;
+
+    @Setup
+    public void setup() throws Exception {
+        pda = Automata.blocks();
+        compiled = pda.compile();
+        tokenizer = new TerminalTokenizer(compiled, true);
+        input = Automata.blocksInput(length);
+    }
+
+    @Benchmark
+    public boolean separatePass() {
+        List<TerminalToken> tokens = new ArrayList<>();
+        for (String word : input.trim().split("\\s+")) {
+            tokens.add(new TerminalToken(word));
+        }
+        return pda.accepts(tokens);
+    }
+
+    @Benchmark
+    public boolean fused() {
+        Recognizer recognizer = compiled.newRecognizer(tokenizer);
+        return recognizer.feed(input) && recognizer.finish();
+    }
+}
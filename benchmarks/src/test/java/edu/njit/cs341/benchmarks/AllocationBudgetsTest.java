@@ -0,0 +1,18 @@
+package edu.njit.cs341.benchmarks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AllocationBudgetsTest {
+
+    @Test
+    void everyPathStaysWithinItsBudget() throws Exception {
+        assumeTrue(AllocationBudgets.isSupported(), "this JVM does not count allocated bytes per thread");
+        List<String> exceeded = AllocationBudgets.measure(System.out);
+        assertTrue(exceeded.isEmpty(), "allocation budget exceeded: " + exceeded);
+    }
+}
@@ -0,0 +1,27 @@
+package edu.njit.cs341;
+
+/**
+ * Accept-only recognition interface shared by the table-driven {@link CompiledDPDA} and the
+ * specialized classes generated for an automaton by {@link AcceptorGenerator}. Implementations are
+ * thread-safe.
+ */
+public interface Acceptor {
+
+    /**
+     * @param symbols terminal ids of the input (CompiledDPDA.NO_SYMBOL for symbols outside the alphabet)
+     * @param from index of the first input symbol
+     * @param to index after the last input symbol
+     * @return true if symbols[from..to) is accepted
+     */
+    boolean accepts(int[] symbols, int from, int to);
+
+    /**
+     * @param input input string, split into terminals by longest match
+     * @return true if the input is accepted
+     */
+    boolean accepts(CharSequence input);
+
+    default boolean accepts(int[] symbols) {
+        return accepts(symbols, 0, symbols.length);
+    }
+}
@@ -0,0 +1,303 @@
+package edu.njit.cs341;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates a class specialized for one {@link CompiledDPDA}: the interpreter loop over the lookup
+ * table becomes a switch on the state, the stack top and the input symbol, with the transitions'
+ * stack operations unrolled and their constants inlined. Chains of epsilon moves are inlined as
+ * the macro steps found by the epsilon analysis. The Java source is compiled in-process with the
+ * system Java compiler and the resulting {@link Acceptor} behaves exactly like the compiled
+ * automaton.
+ *
+ * This pays off for a few small, fixed and hot automata. The generated method grows with the
+ * number of transitions; very large automata hit the JVM's method size limits and are better
+ * served by the table-driven interpreter.
+ */
+public final class AcceptorGenerator {
+
+    private static final String PACKAGE = "edu.njit.cs341.generated";
+    private static final AtomicInteger classCount = new AtomicInteger();
+
+    private AcceptorGenerator() {
+    }
+
+    /**
+     * Generates, compiles and loads a specialized acceptor
+     * @param pda compiled automaton
+     * @return acceptor with the same results as pda
+     * @throws IllegalStateException if no Java compiler is available or the source does not compile
+     */
+    public static Acceptor generate(CompiledDPDA pda) {
+        String className = "SpecializedAcceptor" + classCount.incrementAndGet();
+        String source = generateSource(pda, className);
+        Class<?> type = compile(PACKAGE + "." + className, source);
+        try {
+            if (!pda.tokenizer().isSingleCharacter()) {
+                return (Acceptor) type.getDeclaredConstructor(TerminalTokenizer.class).newInstance(pda.tokenizer());
+            }
+            return (Acceptor) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate generated acceptor", e);
+        }
+    }
+
+    /**
+     * @return Java source of a class specialized for the automaton
+     */
+    public static String generateSource(CompiledDPDA pda, String className) {
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(PACKAGE).append(";\n\n");
+        out.append("/** Generated by ").append(AcceptorGenerator.class.getName()).append(" */\n");
+        out.append("public final class ").append(className).append(" implements ")
+                .append(Acceptor.class.getName()).append(" {\n\n");
+        boolean singleCharacter = pda.tokenizer().isSingleCharacter();
+        if (singleCharacter) {
+            out.append("    private static final int[] CHAR_SYMBOLS = ").append(arrayLiteral(pda.charSymbols)).append(";\n\n");
+            out.append("    private static int symbolOf(char c) {\n");
+            out.append("        return (c < CHAR_SYMBOLS.length ? CHAR_SYMBOLS[c] : -1);\n");
+            out.append("    }\n\n");
+        } else {
+            // multi-character terminals are split off by the automaton's tokenizer
+            String tokenizer = TerminalTokenizer.class.getName();
+            out.append("    private final ").append(tokenizer).append(" tokenizer;\n\n");
+            out.append("    public ").append(className).append("(").append(tokenizer).append(" tokenizer) {\n");
+            out.append("        this.tokenizer = tokenizer;\n");
+            out.append("    }\n\n");
+        }
+
+        String body = generateRun(pda);
+        out.append("    @Override\n");
+        out.append("    public boolean accepts(int[] symbols, int from, int to) {\n");
+        out.append(body.replace("$SYMBOL$", "symbols[i]"));
+        out.append("    }\n\n");
+        out.append("    @Override\n");
+        out.append("    public boolean accepts(CharSequence input) {\n");
+        if (singleCharacter) {
+            out.append("        int from = 0;\n");
+            out.append("        int to = input.length();\n");
+            out.append(body.replace("$SYMBOL$", "symbolOf(input.charAt(i))"));
+        } else {
+            out.append("        return accepts(tokenizer.tokenize(input));\n");
+        }
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    // body of the run loop, $SYMBOL$ stands for the expression reading the input symbol at i
+    private static String generateRun(CompiledDPDA pda) {
+        int epsInput = pda.inputSlots - 1;
+        int epsTop = pda.topSlots - 1;
+        StringBuilder out = new StringBuilder();
+        out.append("        int[] stack = new int[16];\n");
+        out.append("        int depth = 0;\n");
+        out.append("        int state = ").append(pda.startState).append(";\n");
+        out.append("        int i = from;\n");
+        out.append("        run:\n");
+        out.append("        for (;;) {\n");
+        out.append("            int top = (depth == 0 ? -1 : stack[depth - 1]);\n");
+        out.append("            switch (state) {\n");
+        for (int state = 0; state < pda.nStates; state++) {
+            out.append("                case ").append(state).append(": {\n");
+            // epsilon moves are taken before the input symbol is looked at
+            Map<Integer, List<Integer>> epsilonCells = new LinkedHashMap<>();
+            for (int top = 0; top < pda.topSlots; top++) {
+                int id = pda.table[(state * pda.inputSlots + epsInput) * pda.topSlots + top];
+                if (id != CompiledDPDA.NO_TRANSITION) {
+                    epsilonCells.computeIfAbsent(top, k -> new ArrayList<>()).add(id);
+                }
+            }
+            if (!epsilonCells.isEmpty()) {
+                out.append("                    switch (top) {\n");
+                for (int top : epsilonCells.keySet()) {
+                    out.append("                        case ").append(top == epsTop ? -1 : top).append(":\n");
+                    appendEpsilon(out, pda, state, top, epsilonCells.get(top).get(0), "                            ");
+                }
+                out.append("                    }\n");
+            }
+            // moves consuming the input symbol, grouped by symbol and then by stack top
+            out.append("                    if (i == to) {\n");
+            out.append("                        break run;\n");
+            out.append("                    }\n");
+            out.append("                    switch (").append("$SYMBOL$").append(") {\n");
+            for (int input = 0; input < epsInput; input++) {
+                Map<Integer, List<Integer>> byTransition = new LinkedHashMap<>();
+                for (int top = 0; top < pda.topSlots; top++) {
+                    int id = pda.table[(state * pda.inputSlots + input) * pda.topSlots + top];
+                    if (id != CompiledDPDA.NO_TRANSITION && pda.transInput[id] != CompiledDPDA.NO_SYMBOL) {
+                        byTransition.computeIfAbsent(id, k -> new ArrayList<>()).add(top == epsTop ? -1 : top);
+                    }
+                }
+                if (byTransition.isEmpty()) {
+                    continue;
+                }
+                out.append("                        case ").append(input).append(":\n");
+                out.append("                            switch (top) {\n");
+                for (Map.Entry<Integer, List<Integer>> entry : byTransition.entrySet()) {
+                    for (int top : entry.getValue()) {
+                        out.append("                                case ").append(top).append(":\n");
+                    }
+                    out.append("                                    i++;\n");
+                    appendAction(out, pda.transPop[entry.getKey()], pda.transPush[entry.getKey()],
+                            pda.transNext[entry.getKey()], "                                    ");
+                }
+                out.append("                            }\n");
+                out.append("                            break run;\n");
+            }
+            out.append("                    }\n");
+            out.append("                    break run;\n");
+            out.append("                }\n");
+        }
+        out.append("                default:\n");
+        out.append("                    break run;\n");
+        out.append("            }\n");
+        out.append("        }\n");
+        out.append("        if (i != to) {\n");
+        out.append("            return false;\n");
+        out.append("        }\n");
+        out.append("        switch (state) {\n");
+        boolean anyAccepting = false;
+        for (int state = 0; state < pda.nStates; state++) {
+            if (pda.accepting[state]) {
+                out.append("            case ").append(state).append(":\n");
+                anyAccepting = true;
+            }
+        }
+        if (anyAccepting) {
+            out.append("                return true;\n");
+        }
+        out.append("            default:\n");
+        out.append("                return false;\n");
+        out.append("        }\n");
+        return out.toString();
+    }
+
+    private static void appendEpsilon(StringBuilder out, CompiledDPDA pda, int state, int top, int id, String indent) {
+        int cell = state * pda.topSlots + top;
+        int next = pda.epsilon.next[cell];
+        if (next == EpsilonAnalysis.LOOP) {
+            out.append(indent).append("return false;\n");
+        } else if (next >= 0) {
+            appendAction(out, pda.epsilon.pop[cell], pda.epsilon.push[cell], next, indent);
+        } else {
+            appendAction(out, pda.transPop[id], pda.transPush[id], pda.transNext[id], indent);
+        }
+    }
+
+    // pops the matched stack top, pushes the replacement unrolled and continues in the next state
+    private static void appendAction(StringBuilder out, int pop, int[] push, int next, String indent) {
+        if (pop != CompiledDPDA.NO_SYMBOL) {
+            out.append(indent).append("depth--;\n");
+        }
+        if (push.length > 0) {
+            out.append(indent).append("if (depth + ").append(push.length).append(" > stack.length) {\n");
+            out.append(indent).append("    stack = java.util.Arrays.copyOf(stack, 2 * stack.length + ")
+                    .append(push.length).append(");\n");
+            out.append(indent).append("}\n");
+            for (int l = push.length - 1, k = 0; l >= 0; l--, k++) {
+                out.append(indent).append("stack[depth + ").append(k).append("] = ").append(push[l]).append(";\n");
+            }
+            out.append(indent).append("depth += ").append(push.length).append(";\n");
+        }
+        out.append(indent).append("state = ").append(next).append(";\n");
+        out.append(indent).append("continue run;\n");
+    }
+
+    private static String arrayLiteral(int[] values) {
+        StringBuilder builder = new StringBuilder("{");
+        for (int k = 0; k < values.length; k++) {
+            builder.append(k > 0 ? ", " : "").append(values[k]);
+        }
+        return builder.append("}").toString();
+    }
+
+    private static Class<?> compile(String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No Java compiler available, run on a JDK to generate acceptors");
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+        StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, null, null);
+        JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(standard) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind,
+                                                       FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + name.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        classes.put(name, bytes);
+                        return bytes;
+                    }
+                };
+            }
+        };
+        JavaFileObject unit = new SimpleJavaFileObject(
+                URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        List<String> options = Arrays.asList("-classpath", classPath(), "-g:none");
+        boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null, List.of(unit)).call();
+        if (!compiled) {
+            StringBuilder message = new StringBuilder("Generated acceptor does not compile:");
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                message.append("\n").append(diagnostic.getMessage(null));
+            }
+            throw new IllegalStateException(message.toString());
+        }
+        ClassLoader loader = new ClassLoader(Acceptor.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                ByteArrayOutputStream bytes = classes.get(name);
+                if (bytes == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                byte[] code = bytes.toByteArray();
+                return defineClass(name, code, 0, code.length);
+            }
+        };
+        try {
+            return loader.loadClass(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // class path the generated source is compiled against, it only needs the Acceptor interface
+    private static String classPath() {
+        String classPath = System.getProperty("java.class.path", "");
+        try {
+            String location = Paths.get(Acceptor.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+            return location + File.pathSeparator + classPath;
+        } catch (Exception e) {
+            return classPath;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package edu.njit.cs341;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Pre-pass that checks a byte buffer against the alphabet of a {@link CompiledDPDA} before the
+ * automaton runs. A byte that no terminal contains becomes NO_SYMBOL, and the automaton always
+ * gets stuck on NO_SYMBOL before the end of the input, so an input with such a byte is rejected
+ * no matter what comes before it; the filter finds it without any stack work. This holds for text
+ * split by the tokenizer of the automaton, which does not skip whitespace.
+ *
+ * The bytes of the terminals are grouped into ranges of consecutive values. When they are all
+ * ASCII and make up at most MAX_RANGES ranges, eight bytes are checked at a time with SWAR
+ * arithmetic on longs: for a byte b below 0x80, bit 7 of (b | 0x80) - lo is set exactly when
+ * b >= lo and bit 7 of (0x80 + hi) - b exactly when b <= hi, and neither subtraction borrows
+ * from the next byte. Other alphabets are checked a byte at a time against a table.
+ *
+ * A filter is immutable and can be shared between threads.
+ */
+public final class AlphabetFilter {
+
+    static final int MAX_RANGES = 4;
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long ONES = 0x0101010101010101L;
+
+    private final boolean[] valid = new boolean[256];
+    private final long[] lows;         // every byte of a range's low bound
+    private final long[] highs;        // every byte of 0x80 + a range's high bound
+    private final boolean swar;
+    private final int[] byteSymbols;   // null unless every terminal is a single character
+
+    public AlphabetFilter(CompiledDPDA pda) {
+        boolean single = pda.tokenizer().isSingleCharacter();
+        for (String terminal : pda.terminals) {
+            for (int k = 0; k < terminal.length(); k++) {
+                if (terminal.charAt(k) < 256) {
+                    valid[terminal.charAt(k)] = true;
+                }
+            }
+        }
+        boolean ascii = true;
+        int nRanges = 0;
+        for (int b = 0; b < 256; b++) {
+            if (valid[b] && (b == 0 || !valid[b - 1])) {
+                nRanges++;
+            }
+            ascii &= !valid[b] || b < 0x80;
+        }
+        swar = ascii && nRanges <= MAX_RANGES;
+        lows = new long[swar ? nRanges : 0];
+        highs = new long[swar ? nRanges : 0];
+        if (swar) {
+            int r = 0;
+            for (int b = 0; b < 0x80; b++) {
+                if (valid[b] && (b == 0 || !valid[b - 1])) {
+                    int hi = b;
+                    while (hi + 1 < 0x80 && valid[hi + 1]) {
+                        hi++;
+                    }
+                    lows[r] = ONES * b;
+                    highs[r] = ONES * (0x80 + hi);
+                    r++;
+                }
+            }
+        }
+        if (single) {
+            byteSymbols = new int[256];
+            for (int b = 0; b < 256; b++) {
+                byteSymbols[b] = pda.symbolOf((byte) b);
+            }
+        } else {
+            byteSymbols = null;
+        }
+    }
+
+    /**
+     * @return true if whole words are checked with SWAR arithmetic, false if byte by byte
+     */
+    public boolean isWordAtATime() {
+        return swar;
+    }
+
+    /**
+     * @param bytes remaining bytes of the buffer are checked, the buffer position is not changed
+     * @return index in the buffer of the first byte that is not part of any terminal, or -1
+     */
+    public int firstInvalid(ByteBuffer bytes) {
+        int i = bytes.position();
+        int limit = bytes.limit();
+        if (swar) {
+            // the order decides which end of a word holds the byte at the lowest index
+            ByteBuffer words = bytes.duplicate().order(ByteOrder.BIG_ENDIAN);
+            for (; i + 8 <= limit; i += 8) {
+                long invalid = invalidBytes(words.getLong(i));
+                if (invalid != 0) {
+                    return i + Long.numberOfLeadingZeros(invalid) / 8;
+                }
+            }
+        }
+        for (; i < limit; i++) {
+            if (!valid[bytes.get(i) & 0xFF]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index of the first byte of bytes[from..to) that is not part of any terminal, or -1
+     */
+    public int firstInvalid(byte[] bytes, int from, int to) {
+        return firstInvalid(ByteBuffer.wrap(bytes, from, to - from));
+    }
+
+    /**
+     * @return bit 7 set in every byte of the word that is not part of any terminal
+     */
+    private long invalidBytes(long word) {
+        if ((word & HIGH_BITS) != 0) {
+            // no terminal has a byte above 0x7F; the others are still checked so that the lowest
+            // invalid index comes out right
+            long high = word & HIGH_BITS;
+            return high | invalidBytes(word & ~HIGH_BITS) & ~high;
+        }
+        long inRange = 0;
+        for (int r = 0; r < lows.length; r++) {
+            long atLeastLow = ((word | HIGH_BITS) - lows[r]);
+            long atMostHigh = (highs[r] - word);
+            inRange |= atLeastLow & atMostHigh;
+        }
+        return ~inRange & HIGH_BITS;
+    }
+
+    /**
+     * Checks the remaining bytes of the buffer and turns them into terminal ids, for an automaton
+     * whose terminals are single characters. Every id written is a terminal of the automaton.
+     * @param bytes input, the buffer position is not changed
+     * @param symbols receives the ids, must have room for bytes.remaining() ids
+     * @return number of ids written, or -1 if a byte is not a terminal
+     * @throws IllegalStateException if the terminals are not all single characters
+     */
+    public int toSymbols(ByteBuffer bytes, int[] symbols) {
+        if (byteSymbols == null) {
+            throw new IllegalStateException("Terminals of several characters need a TerminalTokenizer");
+        }
+        if (firstInvalid(bytes) >= 0) {
+            return -1;
+        }
+        int from = bytes.position();
+        int n = bytes.remaining();
+        for (int k = 0; k < n; k++) {
+            symbols[k] = byteSymbols[bytes.get(from + k) & 0xFF];
+        }
+        return n;
+    }
+}
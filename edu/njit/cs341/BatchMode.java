@@ -0,0 +1,381 @@
+package edu.njit.cs341;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Non-interactive counterpart of DPDA.simulateDPDA() for bulk jobs: the automaton comes from a
+ * definition file (see {@link DPDADefinition}) or a compiled image, and the inputs are streamed
+ * one per line from a file, stdin or a unix domain socket.
+ *
+ * <pre>
+ * java -jar dpda-simulator.jar definition [input | -] [--output file] [--trace] [--threads n]
+ * java -jar dpda-simulator.jar definition --socket path [--trace] [--threads n]
+ * </pre>
+ *
+ * For every input line a single '1' (accepted) or '0' (rejected) line is written, in input order.
+ * With --trace the result is written the way the interactive dialog does, followed by every
+ * configuration of the run. Lines are bytes read as the characters with the same (unsigned) value,
+ * a trailing '\r' is dropped.
+ *
+ * The input is read through NIO channels in large blocks of whole lines by a reader thread; each
+ * block is checked as one task on a fork-join pool while the next one is read, and the thread
+ * calling run() writes the results of the blocks in the order they were read. A socket serves every
+ * connection the same way, the results going back over the connection.
+ */
+public final class BatchMode {
+
+    private static final int BLOCK = 1 << 20;
+    // blocks read ahead of the writer
+    private static final int MAX_PENDING = 64;
+    private static final Future<ByteBuffer> END = CompletableFuture.completedFuture(null);
+
+    private final CompiledDPDA pda;
+    private final ForkJoinPool pool;
+    private final boolean trace;
+
+    public BatchMode(CompiledDPDA pda) {
+        this(pda, ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * @param pda automaton
+     * @param pool pool checking the blocks of lines
+     * @param trace whether to write every configuration of every run instead of the result only
+     */
+    public BatchMode(CompiledDPDA pda, ForkJoinPool pool, boolean trace) {
+        this.pda = pda;
+        this.pool = pool;
+        this.trace = trace;
+    }
+
+    /**
+     * Checks every line of the input and writes the results in input order. Returns when the
+     * input has ended and all results are written; the channels are not closed.
+     * @param in input lines
+     * @param out results
+     * @return number of lines checked
+     * @throws IOException if reading or writing fails
+     */
+    public long run(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        BlockingQueue<Future<ByteBuffer>> pending = new ArrayBlockingQueue<>(MAX_PENDING);
+        long[] lines = new long[1];
+        Thread reader = new Thread(() -> read(in, pending, lines), "dpda-batch-reader");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            for (;;) {
+                Future<ByteBuffer> block = pending.take();
+                if (block == END) {
+                    break;
+                }
+                ByteBuffer results = block.get();
+                while (results.hasRemaining()) {
+                    out.write(results);
+                }
+            }
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            reader.interrupt();
+        }
+        return lines[0];
+    }
+
+    // splits the input into blocks of whole lines and hands them to the pool, a read that ends in
+    // the middle of a line keeps the rest of it for the next block
+    private void read(ReadableByteChannel in, BlockingQueue<Future<ByteBuffer>> pending, long[] lines) {
+        try {
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(BLOCK);
+                for (;;) {
+                    int n = in.read(buffer);
+                    if (n < 0) {
+                        break;
+                    }
+                    byte[] bytes = buffer.array();
+                    int end = buffer.position();
+                    int cut = end;
+                    while (cut > 0 && bytes[cut - 1] != '\n') {
+                        cut--;
+                    }
+                    if (cut == 0) {
+                        if (!buffer.hasRemaining()) {
+                            // a line longer than a block
+                            buffer = ByteBuffer.wrap(Arrays.copyOf(bytes, 2 * bytes.length)).position(end);
+                        }
+                        continue;
+                    }
+                    ByteBuffer next = ByteBuffer.allocate(Math.max(BLOCK, 2 * (end - cut)));
+                    next.put(bytes, cut, end - cut);
+                    pending.put(submit(bytes, cut, lines));
+                    buffer = next;
+                }
+                if (buffer.position() > 0) {
+                    // the last line has no line break
+                    pending.put(submit(buffer.array(), buffer.position(), lines));
+                }
+            } catch (IOException e) {
+                CompletableFuture<ByteBuffer> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new UncheckedIOException(e));
+                pending.put(failed);
+            }
+            pending.put(END);
+        } catch (InterruptedException e) {
+            // the writer gave up
+        }
+    }
+
+    private Future<ByteBuffer> submit(byte[] bytes, int length, long[] lines) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '\n') {
+                lines[0]++;
+            }
+        }
+        if (length > 0 && bytes[length - 1] != '\n') {
+            lines[0]++;
+        }
+        return pool.submit(() -> check(bytes, length));
+    }
+
+    /**
+     * @return results of the lines of bytes[0..length)
+     */
+    private ByteBuffer check(byte[] bytes, int length) {
+        // grown as the results come, a trace has no bound worth allocating up front
+        Output output = new Output(length + 1);
+        boolean single = pda.tokenizer().isSingleCharacter();
+        Recognizer recognizer = (single ? null : pda.newRecognizer());
+        int[] symbols = new int[256];
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && bytes[end] != '\n') {
+                end++;
+            }
+            int to = (end > start && bytes[end - 1] == '\r' ? end - 1 : end);
+            if (trace) {
+                trace(bytes, start, to, output);
+            } else if (single) {
+                int n = to - start;
+                if (n > symbols.length) {
+                    symbols = new int[Math.max(n, 2 * symbols.length)];
+                }
+                boolean valid = true;
+                for (int i = 0; i < n && valid; i++) {
+                    symbols[i] = pda.symbolOf(bytes[start + i]);
+                    valid = symbols[i] != CompiledDPDA.NO_SYMBOL;
+                }
+                // a byte outside the alphabet rejects the line without running the automaton
+                output.line(valid && pda.accepts(symbols, 0, n) ? '1' : '0');
+            } else {
+                recognizer.reset();
+                boolean running = true;
+                for (int i = start; i < to && running; i++) {
+                    running = recognizer.feed((char) (bytes[i] & 0xFF));
+                }
+                output.line(running && recognizer.finish() ? '1' : '0');
+            }
+            start = end + 1;
+        }
+        return output.toBuffer();
+    }
+
+    // writes the result and the configurations of the run like DPDA.simulateDPDA() does, with the
+    // rule of DPDA.TraceConfigurations: the last configuration only shows the symbol the run got
+    // stuck on, and a character no terminal starts with shows as itself
+    private void trace(byte[] bytes, int from, int to, Output output) {
+        String input = new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        int[] symbols = pda.tokenizer().tokenize(input);
+        // every character no terminal starts with is a token of its own
+        String[] tokens = new String[symbols.length];
+        for (int k = 0, i = 0; k < symbols.length; k++) {
+            tokens[k] = (symbols[k] == CompiledDPDA.NO_SYMBOL ? input.substring(i, i + 1) : pda.terminal(symbols[k]));
+            i += tokens[k].length();
+        }
+        ExecutionTrace run = pda.trace(symbols);
+        StringBuilder text = new StringBuilder();
+        text.append("Accept string ").append(input).append('?').append(run.isAccepted()).append('\n');
+        for (int k = 0; k <= run.steps(); k++) {
+            text.append("(q").append(run.state(k)).append(';');
+            int position = run.inputPosition(k);
+            int end = (k < run.steps() ? symbols.length : Math.min(position + 1, symbols.length));
+            if (position == end) {
+                text.append("eps");
+            } else {
+                for (int i = position; i < end; i++) {
+                    text.append(tokens[i]);
+                }
+            }
+            text.append(';');
+            int[] stack = run.stack(k);
+            if (stack.length == 0) {
+                text.append("eps");
+            } else {
+                for (int symbol : stack) {
+                    text.append(pda.stackSymbol(symbol));
+                }
+            }
+            text.append(")\n");
+        }
+        output.append(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class Output {
+        // largest array the VM allocates
+        private static final int MAX_OUTPUT = Integer.MAX_VALUE - 8;
+
+        private byte[] bytes;
+        private int length = 0;
+
+        Output(int capacity) {
+            bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        void line(char result) {
+            ensure(2);
+            bytes[length++] = (byte) result;
+            bytes[length++] = '\n';
+        }
+
+        void append(byte[] text) {
+            ensure(text.length);
+            System.arraycopy(text, 0, bytes, length, text.length);
+            length += text.length;
+        }
+
+        private void ensure(int n) {
+            long needed = (long) length + n;
+            if (needed > bytes.length) {
+                if (needed > MAX_OUTPUT) {
+                    throw new OutOfMemoryError("Results of a block exceed " + MAX_OUTPUT + " bytes");
+                }
+                bytes = Arrays.copyOf(bytes, (int) Math.min(Math.max(2L * bytes.length, needed), MAX_OUTPUT));
+            }
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(bytes, 0, length);
+        }
+    }
+
+    /**
+     * Serves the unix domain socket until the process is stopped, every connection is a stream of
+     * input lines answered over the same connection. A stale socket file is replaced.
+     * @param socket path of the socket
+     * @throws IOException if the socket cannot be bound
+     */
+    public void serve(Path socket) throws IOException {
+        Files.deleteIfExists(socket);
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            socket.toFile().deleteOnExit();
+            for (;;) {
+                SocketChannel connection = server.accept();
+                Thread handler = new Thread(() -> {
+                    try (SocketChannel channel = connection) {
+                        run(channel, channel);
+                    } catch (IOException e) {
+                        System.err.println("Connection failed: " + e.getMessage());
+                    }
+                }, "dpda-batch-connection");
+                handler.setDaemon(true);
+                handler.start();
+            }
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java -jar dpda-simulator.jar definition [input | -] [--output file] [--trace] [--threads n]");
+        System.err.println("       java -jar dpda-simulator.jar definition --socket path [--trace] [--threads n]");
+        System.err.println("definition is a text definition or a compiled image, the input defaults to stdin");
+        System.exit(2);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path definition = null;
+        Path input = null;
+        Path output = null;
+        Path socket = null;
+        boolean trace = false;
+        int threads = 0;
+        for (int k = 0; k < args.length; k++) {
+            String arg = args[k];
+            boolean hasValue = k + 1 < args.length;
+            if (arg.equals("--trace")) {
+                trace = true;
+            } else if (arg.equals("--output") && hasValue) {
+                output = Paths.get(args[++k]);
+            } else if (arg.equals("--socket") && hasValue) {
+                socket = Paths.get(args[++k]);
+            } else if (arg.equals("--threads") && hasValue) {
+                threads = Integer.parseInt(args[++k]);
+            } else if (arg.startsWith("--")) {
+                usage();
+            } else if (definition == null) {
+                definition = Paths.get(arg);
+            } else if (input == null) {
+                input = (arg.equals("-") ? null : Paths.get(arg));
+            } else {
+                usage();
+            }
+        }
+        if (definition == null || (socket != null && (input != null || output != null))) {
+            usage();
+        }
+
+        CompiledDPDA pda = (CompiledImage.isImage(definition)
+                ? CompiledDPDA.readImage(definition)
+                : DPDADefinition.load(definition).compile());
+        if (!trace) {
+            // traces show the states of the definition, the results are the same either way
+            pda = pda.optimize();
+        }
+        ForkJoinPool pool = (threads > 0 ? new ForkJoinPool(threads) : ForkJoinPool.commonPool());
+        BatchMode batch = new BatchMode(pda, pool, trace);
+        if (socket != null) {
+            batch.serve(socket);
+            return;
+        }
+        try (ReadableByteChannel in = (input == null
+                     ? new FileInputStream(FileDescriptor.in).getChannel()
+                     : FileChannel.open(input, StandardOpenOption.READ));
+             WritableByteChannel out = (output == null
+                     ? new FileOutputStream(FileDescriptor.out).getChannel()
+                     : FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                             StandardOpenOption.TRUNCATE_EXISTING))) {
+            batch.run(in, out);
+        }
+    }
+}
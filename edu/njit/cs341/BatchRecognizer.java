@@ -0,0 +1,80 @@
+package edu.njit.cs341;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks large collections of inputs against one {@link CompiledDPDA} on all cores of a fork-join
+ * pool. The inputs are split into ranges recursively, each leaf range is checked by a single
+ * {@link Recognizer} that is reset between inputs, and the results come back in input order.
+ */
+public final class BatchRecognizer {
+
+    // number of input characters below which a range is not split any further
+    private static final int SPLIT_THRESHOLD = 1 << 14;
+
+    private final CompiledDPDA pda;
+    private final ForkJoinPool pool;
+
+    public BatchRecognizer(CompiledDPDA pda) {
+        this(pda, ForkJoinPool.commonPool());
+    }
+
+    public BatchRecognizer(CompiledDPDA pda, ForkJoinPool pool) {
+        this.pda = pda;
+        this.pool = pool;
+    }
+
+    /**
+     * @param inputs input strings, each split into terminals by longest match
+     * @return for every input whether it is accepted, in input order
+     */
+    public boolean[] acceptsAll(List<? extends CharSequence> inputs) {
+        boolean[] results = new boolean[inputs.size()];
+        if (!inputs.isEmpty()) {
+            pool.invoke(new RangeTask(inputs, results, 0, inputs.size()));
+        }
+        return results;
+    }
+
+    @SuppressWarnings("serial") // never serialized, only forked
+    private final class RangeTask extends RecursiveAction {
+        private final List<? extends CharSequence> inputs;
+        private final boolean[] results;
+        private final int from;
+        private final int to;
+
+        RangeTask(List<? extends CharSequence> inputs, boolean[] results, int from, int to) {
+            this.inputs = inputs;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && length() > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeTask(inputs, results, from, mid),
+                        new RangeTask(inputs, results, mid, to));
+                return;
+            }
+            Recognizer recognizer = pda.newRecognizer();
+            for (int i = from; i < to; i++) {
+                recognizer.reset();
+                results[i] = recognizer.feed(inputs.get(i)) && recognizer.finish();
+            }
+        }
+
+        // total length of the range, sampled so that splitting stays cheap for large ranges
+        private long length() {
+            int step = Math.max(1, (to - from) / 64);
+            long sampled = 0;
+            for (int i = from; i < to; i += step) {
+                sampled += inputs.get(i).length() + 1;
+            }
+            return sampled * step;
+        }
+    }
+}
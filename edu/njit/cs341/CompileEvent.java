@@ -0,0 +1,61 @@
+package edu.njit.cs341;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for building a {@link CompiledDPDA} with its lookup table and compile time
+ * analyses: by DPDA.compile(), by loading a compiled image or by optimize(). A cached compiled form
+ * is not reported again.
+ */
+@Name("edu.njit.cs341.Compile")
+@Label("DPDA Compile")
+@Category("DPDA")
+@Description("Compilation of a DPDA into its lookup table")
+@StackTrace(false)
+final class CompileEvent extends Event {
+
+    static final String DEFINITION = "definition";
+    static final String IMAGE = "image";
+    static final String OPTIMIZE = "optimize";
+
+    @Label("Source")
+    @Description("What the automaton was built from: definition (DPDA.compile()), image or optimize")
+    String source;
+
+    @Label("States")
+    int states;
+
+    @Label("Terminals")
+    int terminals;
+
+    @Label("Stack Symbols")
+    int stackSymbols;
+
+    @Label("Transitions")
+    int transitions;
+
+    @Label("Epsilon Loops")
+    @Description("Whether some state and stack top lead into epsilon moves that never end")
+    boolean epsilonLoops;
+
+    /**
+     * Ends the event and commits it if the recording wants it
+     */
+    void report(CompiledDPDA pda, String source) {
+        end();
+        if (shouldCommit()) {
+            this.source = source;
+            this.states = pda.nStates;
+            this.terminals = pda.terminals.length;
+            this.stackSymbols = pda.stackSymbols.length;
+            this.transitions = pda.transFrom.length;
+            this.epsilonLoops = pda.hasEpsilonLoops();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,604 @@
+package edu.njit.cs341;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled form of a {@link DPDA}. Every terminal and stack symbol is interned to a dense int id
+ * and the transitions are laid out in a state x input symbol x stack top lookup table, so that
+ * finding the next move is a single array load instead of a scan over the transitions of a state.
+ *
+ * Input slot {@code nTerminals} of the table stands for "no input symbol" (input exhausted or
+ * a symbol that is not in the alphabet) and stack slot {@code nStackSymbols} for an empty stack.
+ * Each cell already holds the transition that process() would pick: an epsilon input move
+ * takes precedence over a move consuming the input symbol, and a move on the actual top of stack
+ * takes precedence over an epsilon stack move.
+ *
+ * A compiled automaton is immutable: it is a snapshot of the DPDA taken by DPDA.compile() and is
+ * not affected by transitions added later. It can be shared freely between threads, every run
+ * keeps its own state and stack.
+ */
+public final class CompiledDPDA implements Acceptor {
+
+    public static final int NO_SYMBOL = -1;
+    public static final int NO_TRANSITION = -1;
+
+    // size of the regions of a file mapped at a time, a mapping is limited to 2GB
+    private static final long MAP_REGION = 1L << 30;
+
+    final int nStates;
+    final int startState;
+    final boolean[] accepting;
+
+    final String[] terminals;
+    final String[] stackSymbols;
+    private final Map<String, Integer> terminalIds = new HashMap<>();
+    private final Map<String, Integer> stackSymbolIds = new HashMap<>();
+
+    // transitions, indexed by transition id
+    final int[] transFrom;
+    final int[] transInput;    // NO_SYMBOL for epsilon input
+    final int[] transPop;      // NO_SYMBOL for epsilon stack top
+    final int[] transNext;
+    final int[][] transPush;   // first symbol ends up on top of the stack
+
+    // single character terminals by character and by byte value
+    final int[] charSymbols;
+    private final int[] byteSymbols = new int[256];
+
+    final int inputSlots;      // nTerminals + 1
+    final int topSlots;        // nStackSymbols + 1
+    final int[] table;
+    final EpsilonAnalysis epsilon;
+    final FeasibilityAnalysis feasibility;
+    private final TerminalTokenizer tokenizer;
+    private final AlphabetFilter alphabetFilter;
+
+    CompiledDPDA(int nStates, int startState, boolean[] accepting,
+                 String[] terminals, String[] stackSymbols,
+                 int[] transFrom, int[] transInput, int[] transPop,
+                 int[] transNext, int[][] transPush) {
+        this(nStates, startState, accepting, terminals, stackSymbols, transFrom, transInput, transPop,
+                transNext, transPush, null);
+    }
+
+    /**
+     * @param table resolved lookup table, as stored in a compiled image, or null to build it
+     */
+    CompiledDPDA(int nStates, int startState, boolean[] accepting,
+                 String[] terminals, String[] stackSymbols,
+                 int[] transFrom, int[] transInput, int[] transPop,
+                 int[] transNext, int[][] transPush, int[] table) {
+        this.nStates = nStates;
+        this.startState = startState;
+        this.accepting = accepting;
+        this.terminals = terminals;
+        this.stackSymbols = stackSymbols;
+        this.transFrom = transFrom;
+        this.transInput = transInput;
+        this.transPop = transPop;
+        this.transNext = transNext;
+        this.transPush = transPush;
+        for (int i=0; i < terminals.length; i++) {
+            terminalIds.put(terminals[i], i);
+        }
+        for (int i=0; i < stackSymbols.length; i++) {
+            stackSymbolIds.put(stackSymbols[i], i);
+        }
+        int maxChar = -1;
+        for (String terminal : terminals) {
+            if (terminal.length() == 1) {
+                maxChar = Math.max(maxChar, terminal.charAt(0));
+            }
+        }
+        charSymbols = new int[maxChar + 1];
+        Arrays.fill(charSymbols, NO_SYMBOL);
+        Arrays.fill(byteSymbols, NO_SYMBOL);
+        for (int i=0; i < terminals.length; i++) {
+            if (terminals[i].length() == 1) {
+                char c = terminals[i].charAt(0);
+                charSymbols[c] = i;
+                if (c < 256) {
+                    byteSymbols[c] = i;
+                }
+            }
+        }
+        this.inputSlots = terminals.length + 1;
+        this.topSlots = stackSymbols.length + 1;
+        this.table = (table != null ? table : buildTable());
+        this.epsilon = new EpsilonAnalysis(this);
+        this.feasibility = new FeasibilityAnalysis(this);
+        this.tokenizer = new TerminalTokenizer(this);
+        this.alphabetFilter = new AlphabetFilter(this);
+    }
+
+    /**
+     * Lays out the transitions by (state, input, stack top) and then resolves every cell to the
+     * transition process() would choose for that combination
+     */
+    private int[] buildTable() {
+        int epsInput = inputSlots - 1;
+        int epsTop = topSlots - 1;
+        int[] raw = new int[nStates * inputSlots * topSlots];
+        Arrays.fill(raw, NO_TRANSITION);
+        for (int id=0; id < transFrom.length; id++) {
+            int input = (transInput[id] == NO_SYMBOL ? epsInput : transInput[id]);
+            int top = (transPop[id] == NO_SYMBOL ? epsTop : transPop[id]);
+            int cell = index(transFrom[id], input, top);
+            // the first transition added wins, as it did with the linear scan
+            if (raw[cell] == NO_TRANSITION) {
+                raw[cell] = id;
+            }
+        }
+        int[] resolved = new int[raw.length];
+        for (int state=0; state < nStates; state++) {
+            for (int input=0; input < inputSlots; input++) {
+                for (int top=0; top < topSlots; top++) {
+                    int id = raw[index(state, epsInput, top)];
+                    if (id == NO_TRANSITION) {
+                        id = raw[index(state, epsInput, epsTop)];
+                    }
+                    if (id == NO_TRANSITION && input != epsInput) {
+                        id = raw[index(state, input, top)];
+                        if (id == NO_TRANSITION) {
+                            id = raw[index(state, input, epsTop)];
+                        }
+                    }
+                    resolved[index(state, input, top)] = id;
+                }
+            }
+        }
+        return resolved;
+    }
+
+    private int index(int state, int input, int top) {
+        return (state * inputSlots + input) * topSlots + top;
+    }
+
+    /**
+     * Finds the transition to take from a configuration
+     * @param state current state
+     * @param symbol id of the next input symbol, or NO_SYMBOL if there is none
+     * @param stackTop id of the symbol on top of the stack, or NO_SYMBOL if the stack is empty
+     * @return transition id or NO_TRANSITION if the automaton is stuck
+     */
+    public int transitionFor(int state, int symbol, int stackTop) {
+        int input = (symbol == NO_SYMBOL ? inputSlots - 1 : symbol);
+        int top = (stackTop == NO_SYMBOL ? topSlots - 1 : stackTop);
+        return table[(state * inputSlots + input) * topSlots + top];
+    }
+
+    /**
+     * Accept-only recognition with the same semantics as process() but without recording any
+     * configurations. Apart from growing the stack nothing is allocated while running.
+     * @param symbols terminal ids of the input (NO_SYMBOL for symbols outside the alphabet)
+     * @return true if the input is accepted
+     */
+    @Override
+    public boolean accepts(int[] symbols) {
+        return accepts(symbols, 0, symbols.length);
+    }
+
+    /**
+     * Accept-only recognition of symbols[from..to). The run stops as soon as the configuration
+     * needs more input than is left to be accepted
+     * @param symbols terminal ids of the input
+     * @param from index of the first input symbol
+     * @param to index after the last input symbol
+     * @return true if the input is accepted
+     */
+    @Override
+    public boolean accepts(int[] symbols, int from, int to) {
+        RunEvent event = new RunEvent();
+        event.begin();
+        int epsInput = inputSlots - 1;
+        int epsTop = topSlots - 1;
+        SymbolStack stack = new SymbolStack();
+        int state = startState;
+        int i = from;
+        long epsilonSteps = 0;
+        Outcome outcome;
+        for (;;) {
+            int input = (i < to && symbols[i] != NO_SYMBOL ? symbols[i] : epsInput);
+            int top = (stack.isEmpty() ? epsTop : stack.top());
+            if (feasibility.rejects(state * topSlots + top, to - i)) {
+                // with no input left the automaton cannot end in an accepting state either
+                outcome = (i < to ? Outcome.INFEASIBLE : Outcome.NOT_ACCEPTING);
+                break;
+            }
+            int id = table[(state * inputSlots + input) * topSlots + top];
+            if (id == NO_TRANSITION) {
+                outcome = (i < to ? Outcome.STUCK : (accepting[state] ? Outcome.ACCEPTED : Outcome.NOT_ACCEPTING));
+                break;
+            }
+            if (transInput[id] != NO_SYMBOL) {
+                i++;
+            } else {
+                // take the whole chain of epsilon moves at once
+                int cell = state * topSlots + top;
+                int next = epsilon.next[cell];
+                if (next >= 0) {
+                    stack.apply(epsilon.pop[cell], epsilon.push[cell]);
+                    state = next;
+                    epsilonSteps += epsilon.steps[cell];
+                    continue;
+                } else if (next == EpsilonAnalysis.LOOP) {
+                    outcome = Outcome.EPSILON_LOOP;
+                    break;
+                }
+                epsilonSteps++;
+            }
+            stack.apply(transPop[id], transPush[id]);
+            state = transNext[id];
+        }
+        // every symbol consumed is one step
+        event.report(this, RunEvent.ACCEPTS, to - from, i - from, i - from + epsilonSteps, stack.maxDepth(), outcome);
+        return outcome == Outcome.ACCEPTED;
+    }
+
+    /**
+     * Accept-only recognition that reports every step to a listener. The transitions are taken one
+     * by one, chains of epsilon moves are not collapsed
+     * @param symbols terminal ids of the input
+     * @param listener listener told about every step, or null to run the plain accept-only path
+     * @return true if the input is accepted
+     */
+    public boolean accepts(int[] symbols, ExecutionListener listener) {
+        if (listener == null) {
+            return accepts(symbols, 0, symbols.length);
+        }
+        int epsInput = inputSlots - 1;
+        int epsTop = topSlots - 1;
+        SymbolStack stack = new SymbolStack();
+        int state = startState;
+        int i = 0;
+        int to = symbols.length;
+        Outcome outcome;
+        for (;;) {
+            int input = (i < to && symbols[i] != NO_SYMBOL ? symbols[i] : epsInput);
+            int top = (stack.isEmpty() ? epsTop : stack.top());
+            int id = table[(state * inputSlots + input) * topSlots + top];
+            if (id == NO_TRANSITION) {
+                outcome = (i < to ? Outcome.STUCK : (accepting[state] ? Outcome.ACCEPTED : Outcome.NOT_ACCEPTING));
+                break;
+            }
+            boolean consumesInput = transInput[id] != NO_SYMBOL;
+            if (consumesInput) {
+                i++;
+            } else if (epsilon.next[state * topSlots + top] == EpsilonAnalysis.LOOP) {
+                outcome = Outcome.EPSILON_LOOP;
+                break;
+            }
+            stack.apply(transPop[id], transPush[id]);
+            state = transNext[id];
+            listener.onStep(id, consumesInput, stack.depth());
+        }
+        listener.onFinish(outcome, i, state);
+        return outcome == Outcome.ACCEPTED;
+    }
+
+    /**
+     * Accept-only recognition of a string, split into terminals by longest match
+     * @param input input string
+     * @return true if the input is accepted
+     */
+    @Override
+    public boolean accepts(CharSequence input) {
+        Recognizer recognizer = newRecognizer();
+        return recognizer.feed(input) && recognizer.finish();
+    }
+
+    /**
+     * Accept-only recognition of a list of terminal tokens
+     * @param tokens input tokens
+     * @return true if the input is accepted
+     */
+    public boolean accepts(List<TerminalToken> tokens) {
+        return accepts(toSymbols(tokens));
+    }
+
+    /**
+     * Runs the automaton over the input recording a compact trace of every step
+     * @param symbols terminal ids of the input
+     * @return trace of the run
+     */
+    public ExecutionTrace trace(int[] symbols) {
+        return trace(symbols, 0, symbols.length);
+    }
+
+    public ExecutionTrace trace(int[] symbols, int from, int to) {
+        ExecutionTrace trace = new ExecutionTrace(this);
+        trace.record(symbols, from, to);
+        return trace;
+    }
+
+    /**
+     * Maps input tokens to their terminal ids
+     * @param tokens input tokens
+     * @return terminal ids, NO_SYMBOL for tokens outside the alphabet
+     */
+    public int[] toSymbols(List<TerminalToken> tokens) {
+        int[] symbols = new int[tokens.size()];
+        int i = 0;
+        for (TerminalToken token : tokens) {
+            symbols[i++] = terminalId(token.value);
+        }
+        return symbols;
+    }
+
+    /**
+     * Recognizes the contents of a file, the bytes being split into terminals like characters. The
+     * file is memory-mapped region by region and the bytes are fed to a recognizer without copying them
+     * @param file input file
+     * @return true if the contents of the file are accepted
+     * @throws IOException if the file cannot be read
+     */
+    public boolean acceptsFile(Path file) throws IOException {
+        return acceptsFile(file, newRecognizer());
+    }
+
+    /**
+     * Accept-only recognition of a file whose input may nest deeper than the heap holds
+     * @param file input file, every byte being a single character terminal
+     * @param memory policy for spilling the bottom of the stack off the heap
+     * @return true if the contents of the file are accepted
+     * @throws IOException if the file cannot be read
+     */
+    public boolean acceptsFile(Path file, StackMemory memory) throws IOException {
+        return acceptsFile(file, newRecognizer(memory));
+    }
+
+    private boolean acceptsFile(Path file, Recognizer recognizer) throws IOException {
+        // a file rejected or failing part way gives the spilled stack back
+        try (recognizer; FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // every terminal takes at least one byte
+            recognizer.limitInput(size);
+            for (long offset = 0; offset < size; offset += MAP_REGION) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(MAP_REGION, size - offset));
+                // a byte outside the alphabet rejects the file, whatever the automaton does before it
+                if (alphabetFilter.firstInvalid(region) >= 0 || !recognizer.feed(region)) {
+                    return false;
+                }
+            }
+            return recognizer.finish();
+        }
+    }
+
+    /**
+     * Writes a binary image of the compiled automaton that readImage() loads without replaying
+     * the construction of the DPDA
+     * @param file image file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeImage(Path file) throws IOException {
+        CompiledImage.write(this, file);
+    }
+
+    /**
+     * Loads a compiled automaton from a binary image written by writeImage()
+     * @param file image file
+     * @return compiled automaton
+     * @throws IOException if the file cannot be read or is not a valid image
+     */
+    public static CompiledDPDA readImage(Path file) throws IOException {
+        CompileEvent event = new CompileEvent();
+        event.begin();
+        CompiledDPDA pda = CompiledImage.read(file);
+        event.report(pda, CompileEvent.IMAGE);
+        return pda;
+    }
+
+    /**
+     * Builds an automaton accepting the same inputs with unreachable states dropped, dead states
+     * merged into a sink that rejects right away, equivalent states merged and the states and
+     * stack symbols renumbered densely. Transition ids and state numbers are not kept, so traces
+     * and listeners of the result refer to the new automaton.
+     * @return optimized automaton with the same terminals
+     */
+    public CompiledDPDA optimize() {
+        CompileEvent event = new CompileEvent();
+        event.begin();
+        CompiledDPDA optimized = Optimizer.optimize(this);
+        event.report(optimized, CompileEvent.OPTIMIZE);
+        return optimized;
+    }
+
+    /**
+     * Checks many inputs in parallel on the common fork-join pool
+     * @param inputs input strings, each split into terminals by longest match
+     * @return for every input whether it is accepted, in input order
+     */
+    public boolean[] acceptsAll(List<? extends CharSequence> inputs) {
+        return new BatchRecognizer(this).acceptsAll(inputs);
+    }
+
+    /**
+     * @return a new recognizer that is fed the input incrementally
+     */
+    public Recognizer newRecognizer() {
+        return new Recognizer(this, null);
+    }
+
+    /**
+     * @param listener listener told about every step of the recognizer
+     * @return a new recognizer that is fed the input incrementally
+     */
+    public Recognizer newRecognizer(ExecutionListener listener) {
+        return new Recognizer(this, listener);
+    }
+
+    /**
+     * @param tokenizer tokenizer splitting the text fed into terminals, e.g. one skipping whitespace
+     * @return a new recognizer that is fed the input incrementally
+     */
+    public Recognizer newRecognizer(TerminalTokenizer tokenizer) {
+        return new Recognizer(this, null, tokenizer);
+    }
+
+    /**
+     * @param memory policy for spilling the bottom of a deep stack off the heap
+     * @return a new recognizer that is fed the input incrementally
+     */
+    public Recognizer newRecognizer(StackMemory memory) {
+        return new Recognizer(this, null, tokenizer, memory);
+    }
+
+    /**
+     * @return tokenizer splitting text into the terminals by longest match, without skipping whitespace
+     */
+    public TerminalTokenizer tokenizer() {
+        return tokenizer;
+    }
+
+    /**
+     * @return pre-pass finding bytes that no terminal contains
+     */
+    public AlphabetFilter alphabetFilter() {
+        return alphabetFilter;
+    }
+
+    /**
+     * @return id of the terminal, or NO_SYMBOL if it is not part of the input alphabet
+     */
+    public int terminalId(String terminal) {
+        Integer id = terminalIds.get(terminal);
+        return (id == null ? NO_SYMBOL : id);
+    }
+
+    /**
+     * @return id of the stack symbol, or NO_SYMBOL if no transition uses it
+     */
+    public int stackSymbolId(String symbol) {
+        Integer id = stackSymbolIds.get(symbol);
+        return (id == null ? NO_SYMBOL : id);
+    }
+
+    /**
+     * @return id of the single character terminal c, or NO_SYMBOL if there is none
+     */
+    public int symbolOf(char c) {
+        return (c < charSymbols.length ? charSymbols[c] : NO_SYMBOL);
+    }
+
+    /**
+     * @return id of the single character terminal with the given (unsigned) byte value, or NO_SYMBOL
+     */
+    public int symbolOf(byte b) {
+        return byteSymbols[b & 0xFF];
+    }
+
+    public String terminal(int id) {
+        return terminals[id];
+    }
+
+    public String stackSymbol(int id) {
+        return stackSymbols[id];
+    }
+
+    public int getNumStates() {
+        return nStates;
+    }
+
+    public int getStartState() {
+        return startState;
+    }
+
+    public int getNumTerminals() {
+        return terminals.length;
+    }
+
+    public int getNumStackSymbols() {
+        return stackSymbols.length;
+    }
+
+    public int getNumTransitions() {
+        return transFrom.length;
+    }
+
+    public boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * @return true if some state and stack top lead into an epsilon loop, i.e. a chain of epsilon
+     * moves that never ends
+     */
+    public boolean hasEpsilonLoops() {
+        for (int next : epsilon.next) {
+            if (next == EpsilonAnalysis.LOOP) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An automaton reaching an epsilon loop is treated as stuck instead of running forever
+     * @param state state
+     * @param stackTop id of the stack top, or NO_SYMBOL for an empty stack
+     * @return true if the epsilon moves from the state and stack top never end
+     */
+    public boolean isEpsilonLoop(int state, int stackTop) {
+        return epsilon.isLoop(state, (stackTop == NO_SYMBOL ? topSlots - 1 : stackTop));
+    }
+
+    /**
+     * Acceptance may still be possible when this is true, it is impossible when it is false
+     * @param state state
+     * @param stackTop id of the stack top, or NO_SYMBOL for an empty stack
+     * @return false if no input leads to acceptance from the state and stack top, whatever is below
+     * the stack top
+     */
+    public boolean canAccept(int state, int stackTop) {
+        return minInputToAccept(state, stackTop) >= 0;
+    }
+
+    /**
+     * @param state state
+     * @param stackTop id of the stack top, or NO_SYMBOL for an empty stack
+     * @return lower bound on the number of input symbols needed to accept from the state and stack
+     * top, or -1 if no input leads to acceptance
+     */
+    public int minInputToAccept(int state, int stackTop) {
+        int least = feasibility.need[state * topSlots + (stackTop == NO_SYMBOL ? topSlots - 1 : stackTop)];
+        return (least == FeasibilityAnalysis.INFEASIBLE ? -1 : least);
+    }
+
+    /**
+     * @return the transition in the notation of DPDA.printTransitionsForState(), prefixed by its state
+     */
+    public String describeTransition(int transition) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("q").append(transFrom[transition]).append(" [");
+        builder.append(transInput[transition] == NO_SYMBOL ? "eps" : terminals[transInput[transition]]);
+        builder.append(",");
+        builder.append(transPop[transition] == NO_SYMBOL ? "eps" : stackSymbols[transPop[transition]]);
+        builder.append("->");
+        if (transPush[transition].length == 0) {
+            builder.append("eps");
+        } else {
+            for (int symbol : transPush[transition]) {
+                builder.append(stackSymbols[symbol]);
+            }
+        }
+        builder.append(",(").append(transNext[transition]).append(")]");
+        return builder.toString();
+    }
+
+    public boolean consumesInput(int transition) {
+        return transInput[transition] != NO_SYMBOL;
+    }
+
+    public int nextState(int transition) {
+        return transNext[transition];
+    }
+}
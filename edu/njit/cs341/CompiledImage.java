@@ -0,0 +1,225 @@
+package edu.njit.cs341;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Binary image of a {@link CompiledDPDA}: the symbol names, the transitions, the resolved lookup
+ * table and the result of the feasibility analysis, all big-endian ints. Loading maps the file and
+ * reads the arrays in bulk, there is no parsing of rules and no determinism check. The epsilon and
+ * feasibility analyses are run again on the loaded table rather than trusted: a stored epsilon
+ * chain could hide a loop, and a stored input length that is too large would reject accepted
+ * inputs without an error. An image whose stored feasibility analysis differs from the one run
+ * again fails to load. Images of version 1 have no feasibility analysis.
+ *
+ * <pre>
+ * magic 'DPDA', version, nStates, startState, nTerminals, nStackSymbols, nTransitions
+ * accepting states   nStates bytes (0 or 1)
+ * terminal names     length + UTF-8 bytes each
+ * stack symbol names length + UTF-8 bytes each
+ * transitions        from[], input[], pop[], next[], then length + symbols of every push
+ * lookup table       nStates * (nTerminals + 1) * (nStackSymbols + 1) ints
+ * feasibility        least input to accept, nStates * (nStackSymbols + 1) ints
+ * </pre>
+ *
+ * Every state, symbol and transition id read is range-checked and every table cell has to hold a
+ * transition that the cell can take, so a corrupt image fails to load instead of failing a run.
+ */
+final class CompiledImage {
+
+    private static final int MAGIC = 0x44504441; // "DPDA"
+    private static final int VERSION = 2;
+    // without the feasibility analysis
+    private static final int VERSION_1 = 1;
+
+    private CompiledImage() {
+    }
+
+    static void write(CompiledDPDA pda, Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(pda.nStates);
+            out.writeInt(pda.startState);
+            out.writeInt(pda.terminals.length);
+            out.writeInt(pda.stackSymbols.length);
+            out.writeInt(pda.transFrom.length);
+            for (boolean accepting : pda.accepting) {
+                out.writeByte(accepting ? 1 : 0);
+            }
+            writeNames(out, pda.terminals);
+            writeNames(out, pda.stackSymbols);
+            writeInts(out, pda.transFrom);
+            writeInts(out, pda.transInput);
+            writeInts(out, pda.transPop);
+            writeInts(out, pda.transNext);
+            for (int[] push : pda.transPush) {
+                out.writeInt(push.length);
+                writeInts(out, push);
+            }
+            writeInts(out, pda.table);
+            writeInts(out, pda.feasibility.need);
+        }
+    }
+
+    /**
+     * @return true if the file starts like an image, as opposed to e.g. a text definition
+     */
+    static boolean isImage(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+                // keep reading until the magic is complete or the file ends
+            }
+            return !head.hasRemaining() && head.getInt(0) == MAGIC;
+        }
+    }
+
+    static CompiledDPDA read(Path file) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a compiled DPDA image: " + file);
+            }
+            int version = in.getInt();
+            if (version != VERSION && version != VERSION_1) {
+                throw new IOException("Unsupported image version " + version + ": " + file);
+            }
+            int nStates = in.getInt();
+            int startState = in.getInt();
+            int nTerminals = in.getInt();
+            int nStackSymbols = in.getInt();
+            int nTransitions = in.getInt();
+            check(file, nStates > 0 && startState >= 0 && startState < nStates && nTerminals >= 0
+                    && nStackSymbols >= 0 && nTransitions >= 0, "bad header");
+            long cells = (long) nStates * (nTerminals + 1) * (nStackSymbols + 1);
+            check(file, cells <= Integer.MAX_VALUE, "lookup table too large");
+            check(file, nStates <= in.remaining(), "truncated");
+            boolean[] accepting = new boolean[nStates];
+            for (int k = 0; k < nStates; k++) {
+                accepting[k] = in.get() != 0;
+            }
+            String[] terminals = readNames(in, nTerminals);
+            String[] stackSymbols = readNames(in, nStackSymbols);
+            int[] from = readInts(in, nTransitions);
+            int[] input = readInts(in, nTransitions);
+            int[] pop = readInts(in, nTransitions);
+            int[] next = readInts(in, nTransitions);
+            int[][] push = new int[nTransitions][];
+            for (int k = 0; k < nTransitions; k++) {
+                push[k] = readInts(in, in.getInt());
+            }
+            for (int k = 0; k < nTransitions; k++) {
+                check(file, from[k] >= 0 && from[k] < nStates && next[k] >= 0 && next[k] < nStates,
+                        "state out of range in transition " + k);
+                check(file, input[k] >= CompiledDPDA.NO_SYMBOL && input[k] < nTerminals,
+                        "input symbol out of range in transition " + k);
+                check(file, pop[k] >= CompiledDPDA.NO_SYMBOL && pop[k] < nStackSymbols,
+                        "stack top out of range in transition " + k);
+                for (int symbol : push[k]) {
+                    check(file, symbol >= 0 && symbol < nStackSymbols,
+                            "pushed symbol out of range in transition " + k);
+                }
+            }
+            int[] table = readInts(in, (int) cells);
+            checkTable(file, table, nStates, nTerminals + 1, nStackSymbols + 1, from, input, pop);
+            int[] need = (version != VERSION_1 ? readInts(in, nStates * (nStackSymbols + 1)) : null);
+            CompiledDPDA pda = new CompiledDPDA(nStates, startState, accepting, terminals, stackSymbols,
+                    from, input, pop, next, push, table);
+            // a stored input length that is too large would reject accepted inputs without a run
+            check(file, need == null || Arrays.equals(need, pda.feasibility.need),
+                    "feasibility analysis does not match the lookup table");
+            return pda;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt compiled DPDA image: " + file, e);
+        }
+    }
+
+    /**
+     * Every cell must be empty or hold a transition out of its state that reads its input or
+     * none, and pops its stack top or nothing; on an empty stack nothing can be popped. The epsilon
+     * analysis only looks at the epsilon input cells, so an epsilon move anywhere else must be there too.
+     */
+    private static void checkTable(Path file, int[] table, int nStates, int inputSlots, int topSlots,
+                                   int[] from, int[] input, int[] pop) throws IOException {
+        int k = 0;
+        for (int state = 0; state < nStates; state++) {
+            for (int slot = 0; slot < inputSlots; slot++) {
+                for (int top = 0; top < topSlots; top++, k++) {
+                    int id = table[k];
+                    if (id == CompiledDPDA.NO_TRANSITION) {
+                        continue;
+                    }
+                    check(file, id >= 0 && id < from.length && from[id] == state
+                            && (input[id] == CompiledDPDA.NO_SYMBOL || input[id] == slot)
+                            && (pop[id] == CompiledDPDA.NO_SYMBOL || pop[id] == top)
+                            // an epsilon move is resolved into every input of its stack top
+                            && (input[id] != CompiledDPDA.NO_SYMBOL
+                                || table[(state * inputSlots + inputSlots - 1) * topSlots + top] == id),
+                            "bad transition in lookup table cell " + k);
+                }
+            }
+        }
+    }
+
+    private static void check(Path file, boolean valid, String what) throws IOException {
+        if (!valid) {
+            throw new IOException("Corrupt compiled DPDA image: " + file + ": " + what);
+        }
+    }
+
+    private static void writeNames(DataOutputStream out, String[] names) throws IOException {
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String[] readNames(ByteBuffer in, int n) {
+        // every name takes at least its length
+        if (n > in.remaining() / 4) {
+            throw new BufferUnderflowException();
+        }
+        String[] names = new String[n];
+        for (int k = 0; k < n; k++) {
+            int length = in.getInt();
+            if (length < 0 || length > in.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            names[k] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(ByteBuffer in, int n) {
+        // a bad length must not allocate more than the file holds
+        if (n < 0 || n > in.remaining() / 4) {
+            throw new BufferUnderflowException();
+        }
+        int[] values = new int[n];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + 4 * n);
+        return values;
+    }
+}
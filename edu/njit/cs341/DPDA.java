@@ -77,11 +77,58 @@ public class DPDA {
             );
         }
     }
+    /**
+     * Input symbols and stack tops of the transitions out of a state, so that addTransition() can
+     * tell whether a new transition conflicts with any of them without scanning them all
+     */
+    private static class TransitionIndex {
+        private int size = 0;
+        private boolean epsilonMove = false; // has an epsilon input/epsilon stack transition
+        private final Set<StackToken> stackTops = new HashSet<>(); // null for epsilon
+        private final Map<TerminalToken, Set<StackToken>> stackTopsByInput = new HashMap<>();
+
+        void add(Transition transition) {
+            StackToken top = stackTopOf(transition);
+            size++;
+            if (transition.inputSymbol == TerminalToken.EPSILON && top == null) {
+                epsilonMove = true;
+            }
+            stackTops.add(top);
+            stackTopsByInput.computeIfAbsent(transition.inputSymbol, k -> new HashSet<>()).add(top);
+        }
+
+        /**
+         * @return true if the transition violates the DPDA properties together with one already added
+         */
+        boolean conflicts(Transition transition) {
+            if (size == 0) {
+                return false;
+            }
+            StackToken top = stackTopOf(transition);
+            if (epsilonMove || (transition.inputSymbol == TerminalToken.EPSILON && top == null)) {
+                return true;
+            }
+            if (transition.inputSymbol == TerminalToken.EPSILON) {
+                // an epsilon input move conflicts with every move on the same or any stack top
+                return stackTops.contains(top) || stackTops.contains(null);
+            }
+            Set<StackToken> tops = stackTopsByInput.get(transition.inputSymbol);
+            if (tops == null) {
+                return false;
+            }
+            return (top == null || tops.contains(top) || tops.contains(null));
+        }
+
+        private static StackToken stackTopOf(Transition transition) {
+            return (transition.stackTop.isEmpty() ? null : transition.stackTop.get(0));
+        }
+    }
     private class Configuration {
         public final int currState;
         public final List<StackToken> fromStackState;
         public List<TerminalToken> remainingInput;
         public final Transition transition;
+        private boolean epsilonLoop = false; // the PDA stopped here because epsilon moves never end
 
         public Configuration(int currState, List<TerminalToken> remainingInput,
                              List<StackToken> fromStackState,
@@ -93,7 +140,7 @@ public class DPDA {
         }
 
         public boolean isAccepting() {
-            if (remainingInput.isEmpty() && acceptStates.contains(currState)) {
+            if (!epsilonLoop && remainingInput.isEmpty() && acceptStates.contains(currState)) {
                 return true;
             } else {
                 return false;
@@ -131,20 +178,38 @@ public class DPDA {
     private final int startState;
     private final Set<Integer> acceptStates;
     private List<Transition> [] transitionsArr = null;
+    private TransitionIndex [] transitionIndex = null;
+    private CompiledDPDA compiled = null;
+    private Transition [] compiledTransitions = null; // indexed by transition id of compiled
+    private StackToken [] compiledSymbols = null; // indexed by stack symbol id of compiled
 
     public DPDA(int nStates, int startState,
                  Set<String> terminals,
                  Set<Integer> acceptStates) {
+        this(nStates, startState, terminals, new HashSet<>(), acceptStates);
+    }
+
+    public DPDA(int nStates, int startState,
+                Set<String> terminals,
+                Set<String> stackSymbols,
+                Set<Integer> acceptStates) {
         this.nStates = nStates;
         this.acceptStates = acceptStates;
         this.startState = startState;
         for (String terminal : terminals) {
             terminalTokens.add(new TerminalToken(terminal));
         }
+        for (String symbol : stackSymbols) {
+            stackTokens.add(new StackToken(symbol));
+        }
         transitionsArr = (List<Transition> []) Array.newInstance(List.class, nStates);
         for (int j=0; j < nStates; j++) {
             transitionsArr[j] = new ArrayList<Transition>();
         }
+        transitionIndex = new TransitionIndex[nStates];
+        for (int j=0; j < nStates; j++) {
+            transitionIndex[j] = new TransitionIndex();
+        }
     }
 
     /**
@@ -157,7 +222,6 @@ public class DPDA {
                                          List<StackToken> stackTop2) {
         Iterator<StackToken> iter1 = stackTop1.iterator();
         Iterator<StackToken> iter2 = stackTop2.iterator();
-        List<StackToken> matchedStackTop = new ArrayList<>();
         while (iter1.hasNext() && iter2.hasNext()) {
             StackToken token = iter2.next();
             if (!iter1.next().equals(token)) {
@@ -187,9 +251,14 @@ public class DPDA {
          * throw exception
          */
 
-        if (!terminalTokens.contains(inputSymbol))
+        if (inputSymbol.equals(TerminalToken.EPSILON))
+            inputSymbol = TerminalToken.EPSILON;
+        else if (!terminalTokens.contains(inputSymbol))
             throw new InvalidSymbolException("Invalid input symbol: " + inputSymbol);
 
+        if (stackTop.size() > 1)
+            throw new InvalidSymbolException("Stack top can have at most one symbol: " + stackTop);
+
         for (StackToken token : stackTop) {
             if (!stackTokens.contains(token))
                 throw new InvalidSymbolException("Invalid stack token: " + token);
@@ -203,8 +272,36 @@ public class DPDA {
 
         Transition newTransition = new Transition(currState, inputSymbol, stackTop, nextState,
                 stackTopReplacement);
-        // verify if it satisfies properties of DPDA, else throw exception
-        List<Transition> transitions = transitionsArr[currState];
+        // verify if it satisfies properties of DPDA, else throw exception; checking and adding
+        // is one critical section so that concurrent calls cannot both add conflicting transitions
+        synchronized (this) {
+            List<Transition> transitions = transitionsArr[currState];
+            if (transitionIndex[currState].conflicts(newTransition)) {
+                try {
+                    checkDeterminism(newTransition, transitions);
+                } catch (IllegalArgumentException e) {
+                    DeterminismEvent event = new DeterminismEvent();
+                    if (event.shouldCommit()) {
+                        event.state = currState;
+                        event.transition = newTransition.toString(true);
+                        event.message = e.getMessage();
+                        event.commit();
+                    }
+                    throw e;
+                }
+            }
+            transitions.add(newTransition);
+            transitionIndex[currState].add(newTransition);
+            compiled = null;
+        }
+    }
+
+    /**
+     * Finds the transition the new one conflicts with, in the order the transitions were added
+     * @throws IllegalArgumentException describing the first conflict
+     */
+    private static void checkDeterminism(Transition newTransition, List<Transition> transitions) {
+        int currState = newTransition.currState;
         for (Transition transition : transitions) {
             if (newTransition.equals(transition)) {
                 throw new IllegalArgumentException("Transition already exists");
@@ -238,10 +335,81 @@ public class DPDA {
                 }
             }
         }
-        transitionsArr[currState].add(newTransition);
     }
 
-    public void printTransitionsForState(int state) {
+    /**
+     * Compiles the transitions into an integer-indexed lookup table. The compiled form is cached
+     * until the next call to addTransition(). It is immutable and can be shared between threads,
+     * unlike the DPDA itself
+     * @return compiled automaton
+     */
+    public synchronized CompiledDPDA compile() {
+        if (compiled != null) {
+            return compiled;
+        }
+        CompileEvent event = new CompileEvent();
+        event.begin();
+        Set<String> terminals = new TreeSet<>();
+        for (TerminalToken token : terminalTokens) {
+            terminals.add(token.value);
+        }
+        Set<String> symbols = new TreeSet<>();
+        for (StackToken token : stackTokens) {
+            symbols.add(token.value);
+        }
+        List<Transition> transitions = new ArrayList<>();
+        for (int j=0; j < nStates; j++) {
+            for (Transition transition : transitionsArr[j]) {
+                transitions.add(transition);
+                for (StackToken token : transition.stackTopReplacement) {
+                    symbols.add(token.value);
+                }
+            }
+        }
+        String[] terminalNames = terminals.toArray(new String[0]);
+        String[] symbolNames = symbols.toArray(new String[0]);
+        Map<String, Integer> symbolIds = new HashMap<>();
+        for (int k=0; k < symbolNames.length; k++) {
+            symbolIds.put(symbolNames[k], k);
+        }
+
+        int n = transitions.size();
+        int[] from = new int[n];
+        int[] input = new int[n];
+        int[] pop = new int[n];
+        int[] next = new int[n];
+        int[][] push = new int[n][];
+        for (int k=0; k < n; k++) {
+            Transition transition = transitions.get(k);
+            from[k] = transition.currState;
+            input[k] = (transition.inputSymbol.equals(TerminalToken.EPSILON) ? CompiledDPDA.NO_SYMBOL
+                    : Arrays.binarySearch(terminalNames, transition.inputSymbol.value));
+            pop[k] = (transition.stackTop.isEmpty() ? CompiledDPDA.NO_SYMBOL
+                    : symbolIds.get(transition.stackTop.get(0).value));
+            next[k] = transition.nextState;
+            push[k] = new int[transition.stackTopReplacement.size()];
+            for (int l=0; l < push[k].length; l++) {
+                push[k][l] = symbolIds.get(transition.stackTopReplacement.get(l).value);
+            }
+        }
+        boolean[] accepting = new boolean[nStates];
+        for (int state : acceptStates) {
+            if (state >= 0 && state < nStates) {
+                accepting[state] = true;
+            }
+        }
+        compiledTransitions = transitions.toArray(new Transition[0]);
+        compiledSymbols = new StackToken[symbolNames.length];
+        for (int k=0; k < symbolNames.length; k++) {
+            compiledSymbols[k] = new StackToken(symbolNames[k]);
+        }
+        compiled = new CompiledDPDA(nStates, startState, accepting, terminalNames, symbolNames,
+                from, input, pop, next, push);
+        event.report(compiled, CompileEvent.DEFINITION);
+        return compiled;
+    }
+
+    public synchronized void printTransitionsForState(int state) {
         List<Transition> transitions = transitionsArr[state];
         System.out.println("Transitions for state " + state + ":");
         for (Transition transition : transitions) {
@@ -249,7 +417,7 @@ public class DPDA {
         }
     }
 
-    public void printTransitionsForAllStates() {
+    public synchronized void printTransitionsForAllStates() {
         System.out.println("Printing all transitions...");
         for (int i=0; i < nStates; i++) {
             printTransitionsForState(i);
@@ -258,122 +426,94 @@ public class DPDA {
 
 
     /**
-     * Uses the transition to pop from stack matching symbols from transition.stackTop
-     * and then pushes the symbols stackTopReplacement on to stack
-     * @param stack stack to act on
-     * @param transition
+     * Configurations of a recorded run, rebuilt from the trace only when they are accessed
      */
-    private void actOnStack(Stack<StackToken> stack, Transition transition) {
-        if (transition != null) {
-            List<StackToken> stackTop = transition.stackTop;
-
-            // Pop symbols from the stack matching tokens in stackTop
-            // Make sure you do not pop an empty stack
-            if (!stack.isEmpty()) {
-                boolean stackTopMatched = true;
-                int i = stack.size() - 1; // Index of the top element in the stack
-                for (int j = stackTop.size() - 1; j >= 0; j--) {
-                    if (i < 0 || !stack.get(i).equals(stackTop.get(j))) {
-                        stackTopMatched = false;
-                        break;
-                    }
-                    i--;
-                }
+    private class TraceConfigurations extends AbstractList<Configuration> {
+        private final ExecutionTrace trace;
+        private final List<TerminalToken> input;
+        private final Transition [] transitions;
+        private final StackToken [] symbols;
 
-                if (stackTopMatched) {
-                    // Pop symbols from the stack
-                    for (int k = 0; k < stackTop.size(); k++) {
-                        stack.pop();
-                    }
-                }
+        /**
+         * @param transitions transitions by id of the automaton the trace was recorded with
+         * @param symbols stack symbols by id of that automaton
+         */
+        TraceConfigurations(ExecutionTrace trace, List<TerminalToken> input, Transition [] transitions,
+                            StackToken [] symbols) {
+            this.trace = trace;
+            this.input = input;
+            this.transitions = transitions;
+            this.symbols = symbols;
+        }
+
+        @Override
+        public Configuration get(int k) {
+            if (k < 0 || k > trace.steps()) {
+                throw new IndexOutOfBoundsException("Configuration " + k + " of " + size());
+            }
+            int i = trace.inputPosition(k);
+            int[] ids = trace.stack(k);
+            List<StackToken> stack = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                stack.add(symbols[id]);
             }
-            // Push symbols given in transition.stackTopReplacement onto the stack
-            for (int l = transition.stackTopReplacement.size() - 1; l >= 0; l--) {
-                stack.push(transition.stackTopReplacement.get(l));
+            if (k < trace.steps()) {
+                return new Configuration(trace.state(k), input.subList(i, input.size()), stack,
+                        transitions[trace.transition(k)]);
             }
+            // the last configuration shows the symbol the PDA got stuck on, if any
+            Configuration last = new Configuration(trace.state(k),
+                    (i < input.size() ? Arrays.asList(input.get(i)) : new ArrayList<>()), stack,
+                    (k > 0 ? transitions[trace.transition(k - 1)] : null));
+            last.epsilonLoop = trace.isEpsilonLoop();
+            return last;
+        }
+
+        @Override
+        public int size() {
+            return trace.steps() + 1;
         }
     }
 
 
     /**
-     * Attempts to find a matching transition from current state, input symbol (which may be epsilon)
-     * and top of stack (which may be epsilon if epsilonStack is true)
-     * @param currState
-     * @param inputSymbol
-     * @param stack
-     * @param epsilonStack
-     * @return
+     * Runs the PDA over the input. Only a compact trace is recorded while running, the returned
+     * configurations are rebuilt from it as they are accessed
+     * @param input input tokens
+     * @return configurations of the run, the last one is the configuration the PDA ended in
      */
-    private Transition match(int currState, TerminalToken inputSymbol,
-                             Stack<StackToken> stack, boolean epsilonStack) {
-        List<Transition> possibleTransitions = transitionsArr[currState];
-
-        for (Transition transition : possibleTransitions) {
-            if (transition.inputSymbol.equals(inputSymbol) || (epsilonStack && transition.inputSymbol.equals(TerminalToken.EPSILON))) {
-                if (matchStackTop(transition.stackTop, stack) || (epsilonStack && transition.stackTop.isEmpty())) {
-                    return transition;
-                }
-            }
+    public List<Configuration> process(List<TerminalToken> input) {
+        CompiledDPDA pda;
+        Transition [] transitions;
+        StackToken [] symbols;
+        // the ids of the trace must be looked up in the tables of the same compilation
+        synchronized (this) {
+            pda = compile();
+            transitions = compiledTransitions;
+            symbols = compiledSymbols;
         }
-        return null;
+        return new TraceConfigurations(pda.trace(pda.toSymbols(input)), input, transitions, symbols);
     }
 
-    // create a copy of stack
-    private List<StackToken> copyStack(Stack<StackToken> stack) {
-        List<StackToken> stackTop = new ArrayList<>();
-        Iterator<StackToken> iter = stack.iterator();
-        while (iter.hasNext()) {
-            stackTop.add(0,iter.next());
-        }
-        return stackTop;
+
+    /**
+     * Runs the PDA over the input recording the transition taken in every step
+     * @param input input tokens
+     * @return trace of the run
+     */
+    public ExecutionTrace trace(List<TerminalToken> input) {
+        CompiledDPDA pda = compile();
+        return pda.trace(pda.toSymbols(input));
     }
 
 
-    public List<Configuration> process(List<TerminalToken> input) {
-        Stack<StackToken> stack = new Stack<>();
-        int i = 0;
-        int currState = startState;
-        Transition transition = null;
-        List<Configuration> configurations = new ArrayList<>();
-        TerminalToken inputToken = null;
-        for (;;) {
-            // Check for a transition with epsilon stack/epsilon input transition
-            inputToken = TerminalToken.EPSILON;
-            transition = match(currState, inputToken, stack, true);
-            if (transition == null) {
-                // Check for a transition with epsilon input symbol but match stack top
-                transition = match(currState, inputToken, stack, false);
-                if (transition == null) {
-                    // If i >= input.size(), break out of the loop
-                    if (i >= input.size()) {
-                        break;
-                    }
-                    // Check for a transition matching input (get inputToken first from position i of input) and epsilon stack
-                    inputToken = input.get(i);
-                    transition = match(currState, inputToken, stack, true);
-                }
-            }
-            // Check for a transition matching input (same input in position i) and stack top
-            if (transition == null) {
-                inputToken = input.get(i);
-                transition = match(currState, inputToken, stack, false);
-            }
-            // If no transitions match, PDA is stuck, break out of the loop
-            if (transition == null) {
-                break;
-            }
-            List<TerminalToken> sl = input.subList(i, input.size());
-            configurations.add(new Configuration(currState, sl, copyStack(stack), transition));
-            if (inputToken != TerminalToken.EPSILON) {
-                i++;
-            }
-            actOnStack(stack, transition);
-            currState = transition.nextState;
-        }
-        configurations.add(new Configuration(currState,
-                (i < input.size() ? Arrays.asList(input.get(i)) : new ArrayList<>()),
-                copyStack(stack), transition));
-        return configurations;
+    /**
+     * Same result as acceptString(process(input)) but without building the list of configurations
+     * @param input input tokens
+     * @return true if the input is accepted
+     */
+    public boolean accepts(List<TerminalToken> input) {
+        return compile().accepts(input);
     }
 
 
@@ -488,8 +628,16 @@ public class DPDA {
         }
     }
 
+    /**
+     * Without arguments the automaton and the inputs are entered interactively, with arguments
+     * the inputs are checked in batch mode, see {@link BatchMode}
+     */
     public static void main(String [] args) throws Exception {
-        simulateDPDA();
+        if (args.length > 0) {
+            BatchMode.main(args);
+        } else {
+            simulateDPDA();
+        }
     }
 }
 
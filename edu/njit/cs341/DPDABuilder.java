@@ -0,0 +1,134 @@
+package edu.njit.cs341;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the states, symbols and transitions of a DPDA and builds it in one go, for automata that
+ * are generated rather than typed in. Transitions are only validated by build(), which adds them in
+ * the order they were given; every transition is checked against the ones before it in about
+ * constant time, so automata with large alphabets and many transitions per state load quickly.
+ *
+ * <pre>
+ * DPDA pda = new DPDABuilder(4)
+ *         .terminals("a", "b")
+ *         .stackSymbols("A", "$")
+ *         .accept(0, 3)
+ *         .transition(0, "a", null, 1, "A", "$")
+ *         .transition(1, "a", "A", 1, "A", "A")
+ *         .transition(1, "b", "A", 2)
+ *         .transition(2, "b", "A", 2)
+ *         .transition(2, null, "$", 3)
+ *         .build();
+ * </pre>
+ */
+public final class DPDABuilder {
+
+    private final int nStates;
+    private int startState = 0;
+    private final Set<Integer> acceptStates = new HashSet<>();
+    private final Set<String> terminals = new LinkedHashSet<>();
+    private final Set<String> stackSymbols = new LinkedHashSet<>();
+    private final List<Rule> rules = new ArrayList<>();
+
+    private static final class Rule {
+        final int currState;
+        final TerminalToken inputSymbol;
+        final List<StackToken> stackTop;
+        final int nextState;
+        final List<StackToken> stackTopReplacement;
+
+        Rule(int currState, TerminalToken inputSymbol, List<StackToken> stackTop,
+             int nextState, List<StackToken> stackTopReplacement) {
+            this.currState = currState;
+            this.inputSymbol = inputSymbol;
+            this.stackTop = stackTop;
+            this.nextState = nextState;
+            this.stackTopReplacement = stackTopReplacement;
+        }
+    }
+
+    public DPDABuilder(int nStates) {
+        this.nStates = nStates;
+    }
+
+    public DPDABuilder start(int state) {
+        startState = state;
+        return this;
+    }
+
+    public DPDABuilder accept(int... states) {
+        for (int state : states) {
+            acceptStates.add(state);
+        }
+        return this;
+    }
+
+    public DPDABuilder terminals(String... names) {
+        for (String name : names) {
+            terminals.add(name);
+        }
+        return this;
+    }
+
+    public DPDABuilder stackSymbols(String... names) {
+        for (String name : names) {
+            stackSymbols.add(name);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a transition in the form taken by DPDA.addTransition()
+     */
+    public DPDABuilder transition(int currState, TerminalToken inputSymbol, List<StackToken> stackTop,
+                                  int nextState, List<StackToken> stackTopReplacement) {
+        rules.add(new Rule(currState, inputSymbol, stackTop, nextState, stackTopReplacement));
+        return this;
+    }
+
+    /**
+     * Adds a transition given by symbol names
+     * @param inputSymbol terminal or null for epsilon
+     * @param stackTop stack symbol or null for epsilon
+     * @param stackTopReplacement symbols pushed, the first one ends up on top of the stack
+     */
+    public DPDABuilder transition(int currState, String inputSymbol, String stackTop,
+                                  int nextState, String... stackTopReplacement) {
+        List<StackToken> top = new ArrayList<>(1);
+        if (stackTop != null) {
+            top.add(new StackToken(stackTop));
+        }
+        List<StackToken> replacement = new ArrayList<>(stackTopReplacement.length);
+        for (String symbol : stackTopReplacement) {
+            replacement.add(new StackToken(symbol));
+        }
+        return transition(currState, (inputSymbol == null ? TerminalToken.EPSILON : new TerminalToken(inputSymbol)),
+                top, nextState, replacement);
+    }
+
+    /**
+     * Builds the automaton, validating the transitions like DPDA.addTransition()
+     * @return the automaton
+     * @throws IllegalArgumentException if a transition violates the DPDA properties
+     */
+    public DPDA build() throws InvalidStateException, InvalidSymbolException {
+        if (startState < 0 || startState >= nStates) {
+            throw new InvalidStateException("Invalid start state: " + startState);
+        }
+        for (int state : acceptStates) {
+            if (state < 0 || state >= nStates) {
+                throw new InvalidStateException("Invalid accepting state: " + state);
+            }
+        }
+        DPDA pda = new DPDA(nStates, startState, terminals, stackSymbols, new HashSet<>(acceptStates));
+        for (Rule rule : rules) {
+            pda.addTransition(rule.currState, rule.inputSymbol, rule.stackTop, rule.nextState,
+                    rule.stackTopReplacement);
+        }
+        return pda;
+    }
+}
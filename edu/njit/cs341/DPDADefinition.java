@@ -0,0 +1,189 @@
+package edu.njit.cs341;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads a DPDA from a declarative text definition instead of the interactive dialog of
+ * DPDA.simulateDPDA(). The header declares the automaton, followed by one transition rule per line
+ * in the comma-separated format of the dialog; '-' stands for epsilon and a replacement may push
+ * several symbols separated by spaces, the first one ending up on top of the stack:
+ *
+ * <pre>
+ * # a^n b^n
+ * states: 4
+ * start: 0
+ * accept: 0, 3
+ * terminals: a, b
+ * stack: A, $
+ * transition: 0, a, -, 1, A $
+ * transition: 1, a, A, 1, A A
+ * transition: 1, b, A, 2, -
+ * transition: 2, b, A, 2, -
+ * transition: 2, -, $, 3, -
+ * </pre>
+ *
+ * Lines starting with '#' and blank lines are ignored. start defaults to 0.
+ */
+public final class DPDADefinition {
+
+    private static final String EPSILON = "-";
+
+    private DPDADefinition() {
+    }
+
+    public static DPDA load(Path file) throws IOException, InvalidStateException, InvalidSymbolException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    public static DPDA parse(String definition) throws InvalidStateException, InvalidSymbolException {
+        try {
+            return parse(new StringReader(definition));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Parses a definition, every transition is validated by DPDA.addTransition()
+     * @param reader definition text
+     * @return the automaton
+     * @throws IllegalArgumentException if the definition is malformed
+     */
+    public static DPDA parse(Reader reader) throws IOException, InvalidStateException, InvalidSymbolException {
+        BufferedReader lines = new BufferedReader(reader);
+        int nStates = -1;
+        int startState = 0;
+        Set<Integer> acceptStates = new HashSet<>();
+        Set<String> terminals = new LinkedHashSet<>();
+        Set<String> stackSymbols = new LinkedHashSet<>();
+        DPDA pda = null;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected 'key: value' but got " + line);
+            }
+            String key = line.substring(0, colon).trim().toLowerCase();
+            String value = line.substring(colon + 1).trim();
+            if (pda != null && !key.equals("transition")) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + key + " must come before the transitions");
+            }
+            try {
+                switch (key) {
+                    case "states":
+                        nStates = Integer.parseInt(value);
+                        break;
+                    case "start":
+                        startState = Integer.parseInt(value);
+                        break;
+                    case "accept":
+                        for (String state : split(value)) {
+                            acceptStates.add(Integer.parseInt(state));
+                        }
+                        break;
+                    case "terminals":
+                        terminals.addAll(split(value));
+                        break;
+                    case "stack":
+                        stackSymbols.addAll(split(value));
+                        break;
+                    case "transition":
+                        if (pda == null) {
+                            pda = create(nStates, startState, terminals, stackSymbols, acceptStates, lineNumber);
+                        }
+                        addTransition(pda, value, lineNumber);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Line " + lineNumber + ": unknown key " + key);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": state numbers must be integers");
+            }
+        }
+        if (pda == null) {
+            pda = create(nStates, startState, terminals, stackSymbols, acceptStates, lineNumber);
+        }
+        return pda;
+    }
+
+    private static DPDA create(int nStates, int startState, Set<String> terminals, Set<String> stackSymbols,
+                               Set<Integer> acceptStates, int lineNumber) throws InvalidStateException {
+        if (nStates <= 0) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": number of states missing");
+        }
+        if (startState < 0 || startState >= nStates) {
+            throw new InvalidStateException("Invalid start state: " + startState);
+        }
+        for (int state : acceptStates) {
+            if (state < 0 || state >= nStates) {
+                throw new InvalidStateException("Invalid accepting state: " + state);
+            }
+        }
+        return new DPDA(nStates, startState, terminals, stackSymbols, acceptStates);
+    }
+
+    private static void addTransition(DPDA pda, String rule, int lineNumber)
+            throws InvalidStateException, InvalidSymbolException {
+        List<String> parts = split(rule);
+        if (parts.size() != 5) {
+            throw new IllegalArgumentException("Line " + lineNumber
+                    + ": transition needs currentState, inputSymbol, stackTop, nextState, stackTopReplacement");
+        }
+        int currentState = Integer.parseInt(parts.get(0));
+        TerminalToken inputSymbol = (parts.get(1).equals(EPSILON) ? TerminalToken.EPSILON
+                : new TerminalToken(parts.get(1)));
+        List<StackToken> stackTop = stackTokens(parts.get(2));
+        int nextState = Integer.parseInt(parts.get(3));
+        List<StackToken> stackTopReplacement = stackTokens(parts.get(4));
+        try {
+            pda.addTransition(currentState, inputSymbol, stackTop, nextState, stackTopReplacement);
+        } catch (InvalidStateException e) {
+            throw new InvalidStateException("Line " + lineNumber + ": " + e.getMessage());
+        } catch (InvalidSymbolException e) {
+            throw new InvalidSymbolException("Line " + lineNumber + ": " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+
+    private static List<StackToken> stackTokens(String symbols) {
+        List<StackToken> tokens = new ArrayList<>();
+        if (!symbols.equals(EPSILON)) {
+            for (String symbol : symbols.split("\\s+")) {
+                tokens.add(new StackToken(symbol));
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(",")) {
+            part = part.trim();
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,28 @@
+package edu.njit.cs341;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a transition refused by DPDA.addTransition() because it would make the
+ * automaton nondeterministic. The stack trace shows who tried to add it.
+ */
+@Name("edu.njit.cs341.DeterminismViolation")
+@Label("DPDA Determinism Violation")
+@Category("DPDA")
+@Description("A transition conflicting with an existing one was refused")
+final class DeterminismEvent extends Event {
+
+    @Label("State")
+    int state;
+
+    @Label("Transition")
+    @Description("The transition that was refused")
+    String transition;
+
+    @Label("Message")
+    String message;
+}
@@ -0,0 +1,192 @@
+package edu.njit.cs341;
+
+import java.util.Arrays;
+
+/**
+ * Compile time analysis of the epsilon input moves of a {@link CompiledDPDA}.
+ *
+ * Epsilon input moves are always taken before the input symbol is looked at, so the chain of
+ * epsilon moves taken from a configuration only depends on its state and top of stack. For every
+ * (state, stack top) pair the chain is followed on a symbolic stack until no epsilon move applies,
+ * or until the chain pops the stack top and would have to look below it. The chain is then replaced
+ * by a single macro step with its net effect: the stack top popped (if any), the symbols pushed and
+ * the state it ends in.
+ *
+ * A chain that comes back to the same state and stack top without having popped below the stack
+ * it had there runs forever, either with a constant or with an ever growing stack. Such pairs are
+ * flagged as epsilon loops and the runtime treats the automaton as stuck when it reaches them.
+ */
+final class EpsilonAnalysis {
+
+    static final int NONE = -1;       // no epsilon move applies
+    static final int LOOP = -2;       // epsilon moves never end
+    static final int UNBOUNDED = -3;  // chain too long to be collapsed, taken step by step
+
+    // longest chain followed per pair, relative to the number of (state, stack top) pairs
+    private static final int CHAIN_LIMIT_FACTOR = 64;
+
+    /** state reached by the chain from (state, top), or NONE, LOOP or UNBOUNDED */
+    final int[] next;
+    /** stack top popped by the chain or CompiledDPDA.NO_SYMBOL */
+    final int[] pop;
+    /** symbols pushed by the chain, first symbol ends up on top of the stack */
+    final int[][] push;
+    /** number of epsilon transitions collapsed into the chain */
+    final int[] steps;
+
+    private final int topSlots;
+
+    // scratch space of follow(): most recent visit of each (state, stack top) pair as an index
+    // into the chain, and the steps of the chain whose stack heights are not above those of any
+    // later step
+    private final int[] lastVisit;
+    private int[] visited = new int[16];
+    private int[] lows = new int[16];
+    private int[] lowHeights = new int[16];
+
+    EpsilonAnalysis(CompiledDPDA pda) {
+        topSlots = pda.topSlots;
+        int cells = pda.nStates * topSlots;
+        next = new int[cells];
+        pop = new int[cells];
+        push = new int[cells][];
+        steps = new int[cells];
+        lastVisit = new int[cells];
+        Arrays.fill(lastVisit, -1);
+        int limit = CHAIN_LIMIT_FACTOR * cells;
+        for (int state = 0; state < pda.nStates; state++) {
+            for (int top = 0; top < topSlots; top++) {
+                follow(pda, state, top, limit);
+            }
+        }
+    }
+
+    private void follow(CompiledDPDA pda, int startState, int startTop, int limit) {
+        int cell = startState * topSlots + startTop;
+        int epsInput = pda.inputSlots - 1;
+        int epsTop = topSlots - 1;
+        pop[cell] = CompiledDPDA.NO_SYMBOL;
+        push[cell] = new int[0];
+        if (!isEpsilon(pda, pda.table[(startState * pda.inputSlots + epsInput) * topSlots + startTop])) {
+            next[cell] = NONE;
+            return;
+        }
+
+        // symbolic stack, bottom first; below it is the unknown rest of the stack unless the
+        // chain started on an empty stack
+        int[] local = new int[16];
+        int depth = 0;
+        boolean popped = false;
+        if (startTop != epsTop) {
+            local[depth++] = startTop;
+        }
+        int state = startState;
+        int count = 0;
+        int nLows = 0;
+        try {
+            for (;;) {
+                int top;
+                if (depth > 0) {
+                    top = local[depth - 1];
+                } else if (startTop == epsTop) {
+                    top = epsTop;
+                } else {
+                    // the chain has popped its stack top and would need to look below it
+                    break;
+                }
+                int id = pda.table[(state * pda.inputSlots + epsInput) * topSlots + top];
+                if (!isEpsilon(pda, id)) {
+                    break;
+                }
+                while (nLows > 0 && lowHeights[nLows - 1] > depth) {
+                    nLows--;
+                }
+                int pair = state * topSlots + top;
+                int previous = lastVisit[pair];
+                if (previous >= 0 && isLow(previous, nLows)) {
+                    // back at the same state and stack top without having popped what was below
+                    // the stack top the last time, from here on the chain repeats itself forever
+                    next[cell] = LOOP;
+                    return;
+                }
+                if (count == limit) {
+                    next[cell] = UNBOUNDED;
+                    return;
+                }
+                if (count == visited.length) {
+                    visited = Arrays.copyOf(visited, 2 * count);
+                }
+                visited[count] = pair;
+                lastVisit[pair] = count;
+                if (nLows == lows.length) {
+                    lows = Arrays.copyOf(lows, 2 * nLows);
+                    lowHeights = Arrays.copyOf(lowHeights, 2 * nLows);
+                }
+                lows[nLows] = count;
+                lowHeights[nLows] = depth;
+                nLows++;
+
+                if (pda.transPop[id] != CompiledDPDA.NO_SYMBOL) {
+                    depth--;
+                    if (depth == 0) {
+                        popped = true;
+                    }
+                }
+                int[] symbols = pda.transPush[id];
+                if (depth + symbols.length > local.length) {
+                    local = Arrays.copyOf(local, Math.max(2 * local.length, depth + symbols.length));
+                }
+                for (int l = symbols.length - 1; l >= 0; l--) {
+                    local[depth++] = symbols[l];
+                }
+                state = pda.transNext[id];
+                count++;
+            }
+        } finally {
+            for (int k = 0; k < count; k++) {
+                lastVisit[visited[k]] = -1;
+            }
+        }
+
+        next[cell] = state;
+        steps[cell] = count;
+        int keep = 0;
+        if (startTop != epsTop) {
+            if (popped) {
+                pop[cell] = startTop;
+            } else {
+                // the original stack top is still at the bottom of the symbolic stack
+                keep = 1;
+            }
+        }
+        int[] pushed = new int[depth - keep];
+        for (int k = 0; k < pushed.length; k++) {
+            pushed[k] = local[depth - 1 - k];
+        }
+        push[cell] = pushed;
+    }
+
+    private static boolean isEpsilon(CompiledDPDA pda, int id) {
+        return id != CompiledDPDA.NO_TRANSITION && pda.transInput[id] == CompiledDPDA.NO_SYMBOL;
+    }
+
+    // true if no later step of the chain had a lower stack than the given step; lows[] holds
+    // exactly those steps in increasing order
+    private boolean isLow(int step, int nLows) {
+        int lo = 0;
+        int hi = nLows;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lows[mid] < step) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < nLows && lows[lo] == step;
+    }
+
+    boolean isLoop(int state, int top) {
+        return next[state * topSlots + top] == LOOP;
+    }
+}
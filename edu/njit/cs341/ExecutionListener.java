@@ -0,0 +1,25 @@
+package edu.njit.cs341;
+
+/**
+ * Receives the steps of a run of a {@link CompiledDPDA}. A run with a listener attached takes its
+ * transitions one by one, so chains of epsilon moves are reported transition by transition; runs
+ * without a listener use the plain fast paths and pay nothing for this.
+ */
+public interface ExecutionListener {
+
+    /**
+     * Called after every transition taken
+     * @param transition transition id
+     * @param consumesInput false for an epsilon input move
+     * @param stackDepth depth of the stack after the transition
+     */
+    void onStep(int transition, boolean consumesInput, int stackDepth);
+
+    /**
+     * Called once at the end of the run
+     * @param outcome how the run ended
+     * @param position number of input symbols consumed
+     * @param state state the automaton ended in
+     */
+    void onFinish(Outcome outcome, long position, int state);
+}
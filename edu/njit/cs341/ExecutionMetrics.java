@@ -0,0 +1,129 @@
+package edu.njit.cs341;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Execution listener that counts steps, stack depth, transition hits and outcomes over any
+ * number of runs. Not thread-safe, use one per thread and merge() them.
+ */
+public final class ExecutionMetrics implements ExecutionListener {
+
+    private final CompiledDPDA pda;
+    private final long[] transitionHits;
+    private final long[] outcomes = new long[Outcome.values().length];
+    private long steps = 0;
+    private long epsilonSteps = 0;
+    private int maxStackDepth = 0;
+
+    public ExecutionMetrics(CompiledDPDA pda) {
+        this.pda = pda;
+        this.transitionHits = new long[pda.getNumTransitions()];
+    }
+
+    @Override
+    public void onStep(int transition, boolean consumesInput, int stackDepth) {
+        steps++;
+        if (!consumesInput) {
+            epsilonSteps++;
+        }
+        transitionHits[transition]++;
+        if (stackDepth > maxStackDepth) {
+            maxStackDepth = stackDepth;
+        }
+    }
+
+    @Override
+    public void onFinish(Outcome outcome, long position, int state) {
+        outcomes[outcome.ordinal()]++;
+    }
+
+    /**
+     * Adds the counts of other metrics of the same automaton to these
+     */
+    public void merge(ExecutionMetrics other) {
+        if (other.pda != pda) {
+            throw new IllegalArgumentException("Metrics are for a different automaton");
+        }
+        steps += other.steps;
+        epsilonSteps += other.epsilonSteps;
+        maxStackDepth = Math.max(maxStackDepth, other.maxStackDepth);
+        for (int k = 0; k < transitionHits.length; k++) {
+            transitionHits[k] += other.transitionHits[k];
+        }
+        for (int k = 0; k < outcomes.length; k++) {
+            outcomes[k] += other.outcomes[k];
+        }
+    }
+
+    public void reset() {
+        steps = 0;
+        epsilonSteps = 0;
+        maxStackDepth = 0;
+        Arrays.fill(transitionHits, 0);
+        Arrays.fill(outcomes, 0);
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getEpsilonSteps() {
+        return epsilonSteps;
+    }
+
+    public long getInputSteps() {
+        return steps - epsilonSteps;
+    }
+
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    public long getTransitionHits(int transition) {
+        return transitionHits[transition];
+    }
+
+    public long getRuns() {
+        long runs = 0;
+        for (long count : outcomes) {
+            runs += count;
+        }
+        return runs;
+    }
+
+    public long getOutcomeCount(Outcome outcome) {
+        return outcomes[outcome.ordinal()];
+    }
+
+    /**
+     * @return ids of the n most taken transitions, most taken first
+     */
+    public int[] hottestTransitions(int n) {
+        List<Integer> ids = new ArrayList<>();
+        for (int k = 0; k < transitionHits.length; k++) {
+            if (transitionHits[k] > 0) {
+                ids.add(k);
+            }
+        }
+        ids.sort((a, b) -> Long.compare(transitionHits[b], transitionHits[a]));
+        int[] hottest = new int[Math.min(n, ids.size())];
+        for (int k = 0; k < hottest.length; k++) {
+            hottest[k] = ids.get(k);
+        }
+        return hottest;
+    }
+
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("runs=").append(getRuns());
+        for (Outcome outcome : Outcome.values()) {
+            builder.append(",").append(outcome.name().toLowerCase()).append("=").append(getOutcomeCount(outcome));
+        }
+        builder.append(",steps=").append(steps);
+        builder.append(",epsilonSteps=").append(epsilonSteps);
+        builder.append(",maxStackDepth=").append(maxStackDepth);
+        return builder.toString();
+    }
+}
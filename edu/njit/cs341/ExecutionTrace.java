@@ -0,0 +1,161 @@
+package edu.njit.cs341;
+
+import java.util.Arrays;
+
+/**
+ * Compact record of a run of a {@link CompiledDPDA}. For every step only the transition id, the
+ * input position and the stack (a node of a {@link SharedStack}) before the step are kept, so a
+ * step costs a few ints no matter how deep the stack is. Full configurations are rebuilt on demand
+ * for the steps that are looked at.
+ *
+ * Step k goes from configuration k to configuration k+1; there are steps()+1 configurations, the
+ * last one being the configuration the run ended in.
+ */
+public final class ExecutionTrace {
+
+    private final CompiledDPDA pda;
+    private final SharedStack stacks = new SharedStack();
+    private int[] transitions = new int[64];
+    private int[] positions = new int[64];
+    private int[] stackNodes = new int[64];
+    private int steps = 0;
+
+    private int finalState;
+    private int finalPosition;
+    private int finalStack = SharedStack.EMPTY;
+    private int inputLength;
+    private boolean epsilonLoop = false;
+
+    ExecutionTrace(CompiledDPDA pda) {
+        this.pda = pda;
+    }
+
+    /**
+     * Runs the automaton over the input and records every step
+     * @param symbols terminal ids of the input (NO_SYMBOL for symbols outside the alphabet)
+     * @param from index of the first input symbol
+     * @param to index after the last input symbol
+     */
+    void record(int[] symbols, int from, int to) {
+        RunEvent event = new RunEvent();
+        event.begin();
+        int state = pda.startState;
+        int stack = SharedStack.EMPTY;
+        int i = from;
+        for (;;) {
+            int top = stacks.top(stack);
+            int id = pda.transitionFor(state, (i < to ? symbols[i] : CompiledDPDA.NO_SYMBOL), top);
+            if (id == CompiledDPDA.NO_TRANSITION) {
+                break;
+            }
+            if (pda.transInput[id] == CompiledDPDA.NO_SYMBOL && pda.isEpsilonLoop(state, top)) {
+                // the epsilon moves from here never end, stop instead of recording them forever
+                epsilonLoop = true;
+                break;
+            }
+            add(id, i - from, stack);
+            if (pda.transInput[id] != CompiledDPDA.NO_SYMBOL) {
+                i++;
+            }
+            stack = stacks.apply(stack, pda.transPop[id], pda.transPush[id]);
+            state = pda.transNext[id];
+        }
+        finalState = state;
+        finalPosition = i - from;
+        finalStack = stack;
+        inputLength = to - from;
+        event.end();
+        if (event.shouldCommit()) {
+            int maxDepth = 0;
+            for (int k = 0; k <= steps; k++) {
+                maxDepth = Math.max(maxDepth, stackDepth(k));
+            }
+            event.report(pda, RunEvent.TRACE, inputLength, finalPosition, steps, maxDepth, getOutcome());
+        }
+    }
+
+    private void add(int transition, int position, int stack) {
+        if (steps == transitions.length) {
+            transitions = Arrays.copyOf(transitions, 2 * steps);
+            positions = Arrays.copyOf(positions, 2 * steps);
+            stackNodes = Arrays.copyOf(stackNodes, 2 * steps);
+        }
+        transitions[steps] = transition;
+        positions[steps] = position;
+        stackNodes[steps] = stack;
+        steps++;
+    }
+
+    public CompiledDPDA getAutomaton() {
+        return pda;
+    }
+
+    /**
+     * @return number of transitions taken
+     */
+    public int steps() {
+        return steps;
+    }
+
+    /**
+     * @return id of the transition taken in step k
+     */
+    public int transition(int k) {
+        return transitions[k];
+    }
+
+    /**
+     * @return state of configuration k
+     */
+    public int state(int k) {
+        return (k == steps ? finalState : pda.transFrom[transitions[k]]);
+    }
+
+    /**
+     * @return number of input symbols consumed before configuration k
+     */
+    public int inputPosition(int k) {
+        return (k == steps ? finalPosition : positions[k]);
+    }
+
+    public int stackDepth(int k) {
+        return stacks.depth(k == steps ? finalStack : stackNodes[k]);
+    }
+
+    /**
+     * @return stack symbol ids of configuration k, top of stack first
+     */
+    public int[] stack(int k) {
+        return stacks.toArray(k == steps ? finalStack : stackNodes[k]);
+    }
+
+    /**
+     * @return true if the run stopped because it reached an epsilon loop, the input is rejected then
+     */
+    public boolean isEpsilonLoop() {
+        return epsilonLoop;
+    }
+
+    public int getInputLength() {
+        return inputLength;
+    }
+
+    /**
+     * @return true if the run consumed the whole input and ended in an accepting state
+     */
+    public boolean isAccepted() {
+        return !epsilonLoop && finalPosition == inputLength && pda.accepting[finalState];
+    }
+
+    /**
+     * @return how the run ended
+     */
+    public Outcome getOutcome() {
+        if (epsilonLoop) {
+            return Outcome.EPSILON_LOOP;
+        } else if (finalPosition < inputLength) {
+            return Outcome.STUCK;
+        }
+        return (pda.accepting[finalState] ? Outcome.ACCEPTED : Outcome.NOT_ACCEPTING);
+    }
+}
@@ -0,0 +1,192 @@
+package edu.njit.cs341;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Compile time analysis of which configurations of a {@link CompiledDPDA} can still lead to
+ * acceptance, and of how much input that takes at least.
+ *
+ * For a configuration with state q and stack X above the rest of the stack, the rest is not
+ * looked at until X is popped. Three summaries are computed for every (state, stack top) pair over
+ * all possible inputs, as a fixpoint over the transitions the runtime would take:
+ * the least input after which the automaton accepts without having popped X, the states it can be
+ * in right after X is popped and the least input needed to get there. A transition pushing
+ * Y1..Yk is followed symbol by symbol through these summaries of Y1..Yk, so the analysis is exact
+ * about which states can pop a pushed symbol, and input lengths are lower bounds.
+ *
+ * From the summaries follows for every pair the least input needed to accept whatever the rest of
+ * the stack is, or INFEASIBLE if no input and no rest of the stack lead to acceptance. A run whose
+ * configuration needs more input than is left can be rejected right away without changing the result.
+ */
+final class FeasibilityAnalysis {
+
+    static final int INFEASIBLE = Integer.MAX_VALUE;
+
+    /** least input needed to accept from (state, top) whatever is below the top, or INFEASIBLE */
+    final int[] need;
+
+    private final int topSlots;
+    private final int epsTop;
+    // least input to accept without popping the top, the whole stack for an empty stack
+    private final int[] hold;
+    // least input to pop the top, and the states right after it is popped (null for none)
+    private final int[] popCost;
+    private final BitSet[] popStates;
+
+    // scratch space of follow()
+    private BitSet current;
+    private BitSet following;
+    private boolean changed;
+
+    FeasibilityAnalysis(CompiledDPDA pda) {
+        topSlots = pda.topSlots;
+        epsTop = topSlots - 1;
+        int cells = pda.nStates * topSlots;
+        hold = new int[cells];
+        popCost = new int[cells];
+        popStates = new BitSet[cells];
+        need = new int[cells];
+        Arrays.fill(hold, INFEASIBLE);
+        Arrays.fill(popCost, INFEASIBLE);
+        current = new BitSet(pda.nStates);
+        following = new BitSet(pda.nStates);
+
+        // summaries only get smaller or larger, so going over all transitions until nothing
+        // changes reaches the least fixpoint
+        int epsInput = pda.inputSlots - 1;
+        do {
+            changed = false;
+            for (int state = 0; state < pda.nStates; state++) {
+                for (int top = 0; top < topSlots; top++) {
+                    int cell = state * topSlots + top;
+                    int eps = pda.table[(state * pda.inputSlots + epsInput) * topSlots + top];
+                    if (eps != CompiledDPDA.NO_TRANSITION) {
+                        // an epsilon move is taken whatever the input is
+                        follow(pda, cell, top, eps);
+                        continue;
+                    }
+                    if (pda.accepting[state]) {
+                        lower(hold, cell, 0);
+                    }
+                    for (int input = 0; input < epsInput; input++) {
+                        int id = pda.table[(state * pda.inputSlots + input) * topSlots + top];
+                        if (id != CompiledDPDA.NO_TRANSITION) {
+                            follow(pda, cell, top, id);
+                        }
+                    }
+                }
+            }
+        } while (changed);
+        current = null;
+        following = null;
+
+        for (int cell = 0; cell < cells; cell++) {
+            need[cell] = hold[cell];
+        }
+        int[] any = new int[pda.nStates];
+        boolean lowered;
+        do {
+            lowered = false;
+            for (int state = 0; state < pda.nStates; state++) {
+                int least = INFEASIBLE;
+                for (int top = 0; top < topSlots; top++) {
+                    least = Math.min(least, need[state * topSlots + top]);
+                }
+                any[state] = least;
+            }
+            for (int cell = 0; cell < cells; cell++) {
+                BitSet states = popStates[cell];
+                if (states == null) {
+                    continue;
+                }
+                int below = INFEASIBLE;
+                for (int p = states.nextSetBit(0); p >= 0; p = states.nextSetBit(p + 1)) {
+                    below = Math.min(below, any[p]);
+                }
+                int cost = add(popCost[cell], below);
+                if (cost < need[cell]) {
+                    need[cell] = cost;
+                    lowered = true;
+                }
+            }
+        } while (lowered);
+    }
+
+    /**
+     * Updates the summaries of a cell with one transition taken from it
+     */
+    private void follow(CompiledDPDA pda, int cell, int top, int id) {
+        int cost = (pda.transInput[id] != CompiledDPDA.NO_SYMBOL ? 1 : 0);
+        int[] pushed = pda.transPush[id];
+        boolean keepsTop = top != epsTop && pda.transPop[id] == CompiledDPDA.NO_SYMBOL;
+        current.clear();
+        current.set(pda.transNext[id]);
+        // the pushed symbols and then the old top if it is still there, each has to be popped
+        // before the automaton sees what is below it
+        int n = pushed.length + (keepsTop ? 1 : 0);
+        for (int k = 0; k < n; k++) {
+            int symbol = (k < pushed.length ? pushed[k] : top);
+            int held = INFEASIBLE;
+            int popped = INFEASIBLE;
+            following.clear();
+            for (int s = current.nextSetBit(0); s >= 0; s = current.nextSetBit(s + 1)) {
+                int at = s * topSlots + symbol;
+                held = Math.min(held, hold[at]);
+                if (popStates[at] != null) {
+                    popped = Math.min(popped, popCost[at]);
+                    following.or(popStates[at]);
+                }
+            }
+            lower(hold, cell, add(cost, held));
+            if (following.isEmpty()) {
+                return;
+            }
+            cost = add(cost, popped);
+            BitSet swap = current;
+            current = following;
+            following = swap;
+        }
+        if (top == epsTop) {
+            // back on the empty stack
+            int held = INFEASIBLE;
+            for (int s = current.nextSetBit(0); s >= 0; s = current.nextSetBit(s + 1)) {
+                held = Math.min(held, hold[s * topSlots + epsTop]);
+            }
+            lower(hold, cell, add(cost, held));
+            return;
+        }
+        lower(popCost, cell, cost);
+        if (popStates[cell] == null) {
+            popStates[cell] = new BitSet();
+        }
+        int before = popStates[cell].cardinality();
+        popStates[cell].or(current);
+        changed |= popStates[cell].cardinality() != before;
+    }
+
+    private void lower(int[] values, int cell, int value) {
+        if (value < values[cell]) {
+            values[cell] = value;
+            changed = true;
+        }
+    }
+
+    // lengths that do not fit are kept just below INFEASIBLE, which is still a lower bound
+    private static int add(int a, int b) {
+        if (a == INFEASIBLE || b == INFEASIBLE) {
+            return INFEASIBLE;
+        }
+        return (int) Math.min((long) a + b, INFEASIBLE - 1);
+    }
+
+    /**
+     * @param cell state * topSlots + stack top
+     * @param remaining number of input symbols left, at most
+     * @return true if no input that long accepts from the state and stack top
+     */
+    boolean rejects(int cell, long remaining) {
+        int least = need[cell];
+        return least == INFEASIBLE || least > remaining;
+    }
+}
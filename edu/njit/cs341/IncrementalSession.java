@@ -0,0 +1,305 @@
+package edu.njit.cs341;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the recognition of a long document up to date while it is edited. The configuration is
+ * checkpointed at regular input positions; the stacks live in a {@link SharedStack}, so a
+ * checkpoint costs two ints and two checkpoints hold the same stack exactly when they hold the
+ * same node. After an edit the automaton is run again from the last checkpoint before the edit,
+ * and only until it reaches a checkpoint after the edit in the same state with the same stack: from
+ * there on the run is the one seen before, so the later checkpoints and the result still hold.
+ * The work of an edit is therefore proportional to the edited region and to how far its effect on
+ * the configuration reaches, not to the length of the document.
+ *
+ * Text is read as single character terminals. A session is not thread-safe.
+ */
+public final class IncrementalSession {
+
+    static final int DEFAULT_INTERVAL = 256;
+
+    // stack nodes allowed per node of a full run before the shared stacks are rebuilt
+    private static final int COMPACT_FACTOR = 4;
+
+    private final CompiledDPDA pda;
+    private final int interval;
+
+    // the document is kept in a gap buffer, so edits close to each other move few symbols:
+    // symbols[0..gapStart) and symbols[gapEnd..) hold it, the gap in between is free
+    private int[] symbols;
+    private int gapStart;
+    private int gapEnd;
+
+    private SharedStack stacks;
+    private int compactLimit;
+
+    // checkpoints in increasing position: the configuration before consuming symbols[position]
+    private int nCheckpoints = 0;
+    private int[] positions = new int[16];
+    private int[] states = new int[16];
+    private int[] stackNodes = new int[16];
+
+    private int stuckAt = -1;        // position the automaton got stuck at, or -1
+    private boolean accepted;
+    private long symbolsRun = 0;
+    private long lastSymbolsRun = 0;
+
+    public IncrementalSession(CompiledDPDA pda, CharSequence text) {
+        this(pda, toSymbols(pda, text), DEFAULT_INTERVAL);
+    }
+
+    /**
+     * @param pda automaton
+     * @param symbols terminal ids of the document (NO_SYMBOL for symbols outside the alphabet)
+     * @param interval number of input symbols between checkpoints
+     */
+    public IncrementalSession(CompiledDPDA pda, int[] symbols, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        this.pda = pda;
+        this.interval = interval;
+        this.symbols = Arrays.copyOf(symbols, Math.max(16, symbols.length));
+        this.gapStart = symbols.length;
+        this.gapEnd = this.symbols.length;
+        runFromStart();
+    }
+
+    private static int[] toSymbols(CompiledDPDA pda, CharSequence text) {
+        int[] symbols = new int[text.length()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = pda.symbolOf(text.charAt(i));
+        }
+        return symbols;
+    }
+
+    /**
+     * @return true if the document as it is now is accepted
+     */
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    public int length() {
+        return symbols.length - (gapEnd - gapStart);
+    }
+
+    public boolean insert(int at, CharSequence text) {
+        return replace(at, at, text);
+    }
+
+    public boolean delete(int from, int to) {
+        return replace(from, to, new int[0]);
+    }
+
+    public boolean replace(int from, int to, CharSequence text) {
+        return replace(from, to, toSymbols(pda, text));
+    }
+
+    /**
+     * Replaces symbols[from..to) of the document and brings the result up to date
+     * @param replacement terminal ids replacing the range
+     * @return true if the document is accepted after the edit
+     */
+    public boolean replace(int from, int to, int[] replacement) {
+        int length = length();
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("Invalid range " + from + ".." + to + " of " + length);
+        }
+        int delta = replacement.length - (to - from);
+        moveGap(from);
+        gapEnd += to - from;
+        if (gapEnd - gapStart < replacement.length) {
+            int capacity = Math.max(2 * symbols.length, length + delta);
+            int[] grown = new int[capacity];
+            System.arraycopy(symbols, 0, grown, 0, gapStart);
+            int tail = symbols.length - gapEnd;
+            System.arraycopy(symbols, gapEnd, grown, capacity - tail, tail);
+            symbols = grown;
+            gapEnd = capacity - tail;
+        }
+        System.arraycopy(replacement, 0, symbols, gapStart, replacement.length);
+        gapStart += replacement.length;
+
+        // checkpoints up to the edit still hold, those inside the replaced range are gone and
+        // those after it move along with their symbols
+        int kept = 0;
+        int resume = 0;
+        for (int k = 0; k < nCheckpoints; k++) {
+            int position = positions[k];
+            if (position > from && position < to) {
+                continue;
+            }
+            if (position <= from) {
+                resume = kept;
+            } else {
+                position += delta;
+            }
+            positions[kept] = position;
+            states[kept] = states[k];
+            stackNodes[kept] = stackNodes[k];
+            kept++;
+        }
+        nCheckpoints = kept;
+
+        lastSymbolsRun = 0;
+        if (stuckAt >= 0 && stuckAt < from) {
+            // the automaton gets stuck before it sees the edit
+            return accepted;
+        }
+        if (stuckAt >= to) {
+            // kept if the run converges before it
+            stuckAt += delta;
+        }
+        if (stacks.size() > compactLimit) {
+            runFromStart();
+        } else {
+            run(resume);
+        }
+        return accepted;
+    }
+
+    private void moveGap(int position) {
+        if (position < gapStart) {
+            int n = gapStart - position;
+            System.arraycopy(symbols, position, symbols, gapEnd - n, n);
+            gapStart -= n;
+            gapEnd -= n;
+        } else if (position > gapStart) {
+            int n = position - gapStart;
+            System.arraycopy(symbols, gapEnd, symbols, gapStart, n);
+            gapStart += n;
+            gapEnd += n;
+        }
+    }
+
+    private void runFromStart() {
+        stacks = new SharedStack();
+        nCheckpoints = 1;
+        positions[0] = 0;
+        states[0] = pda.startState;
+        stackNodes[0] = SharedStack.EMPTY;
+        lastSymbolsRun = 0;
+        run(0);
+        compactLimit = COMPACT_FACTOR * Math.max(stacks.size(), 1 << 10);
+    }
+
+    /**
+     * Runs from checkpoint first until the configuration converges with a later checkpoint or the
+     * run ends, replacing the checkpoints passed on the way
+     */
+    private void run(int first) {
+        int epsInput = pda.inputSlots - 1;
+        int epsTop = pda.topSlots - 1;
+        int state = states[first];
+        int stack = stackNodes[first];
+        int i = positions[first];
+        int start = i;
+        int length = length();
+        int gap = gapEnd - gapStart;
+
+        // new checkpoints are collected apart, the old ones after first are compared against
+        int[] newPositions = new int[16];
+        int[] newStates = new int[16];
+        int[] newStacks = new int[16];
+        int nNew = 0;
+        int old = first + 1;
+        int last = i;
+        boolean converged = false;
+        boolean stuck = false;
+        for (;;) {
+            if (i > start) {
+                while (old < nCheckpoints && positions[old] < i) {
+                    old++;
+                }
+                boolean atOld = old < nCheckpoints && positions[old] == i;
+                if (atOld && states[old] == state && stackNodes[old] == stack) {
+                    converged = true;
+                    break;
+                }
+                // between the old checkpoints new ones are only needed where the gap got too wide
+                if (atOld || (i - last >= interval
+                        && (old == nCheckpoints || positions[old] - last > 2 * interval))) {
+                    if (nNew == newPositions.length) {
+                        newPositions = Arrays.copyOf(newPositions, 2 * nNew);
+                        newStates = Arrays.copyOf(newStates, 2 * nNew);
+                        newStacks = Arrays.copyOf(newStacks, 2 * nNew);
+                    }
+                    newPositions[nNew] = i;
+                    newStates[nNew] = state;
+                    newStacks[nNew] = stack;
+                    nNew++;
+                    last = i;
+                    if (atOld) {
+                        old++;
+                    }
+                }
+            }
+            int symbol = (i < gapStart ? symbols[i] : i < length ? symbols[i + gap] : CompiledDPDA.NO_SYMBOL);
+            int input = (symbol != CompiledDPDA.NO_SYMBOL ? symbol : epsInput);
+            int top = stacks.top(stack);
+            int id = pda.table[(state * pda.inputSlots + input) * pda.topSlots + (top == CompiledDPDA.NO_SYMBOL ? epsTop : top)];
+            if (id == CompiledDPDA.NO_TRANSITION) {
+                stuck = i < length;
+                break;
+            }
+            if (pda.transInput[id] != CompiledDPDA.NO_SYMBOL) {
+                i++;
+            } else {
+                int cell = state * pda.topSlots + (top == CompiledDPDA.NO_SYMBOL ? epsTop : top);
+                int next = pda.epsilon.next[cell];
+                if (next == EpsilonAnalysis.LOOP) {
+                    stuck = true;
+                    break;
+                } else if (next >= 0) {
+                    stack = stacks.apply(stack, pda.epsilon.pop[cell], pda.epsilon.push[cell]);
+                    state = next;
+                    continue;
+                }
+            }
+            stack = stacks.apply(stack, pda.transPop[id], pda.transPush[id]);
+            state = pda.transNext[id];
+        }
+        lastSymbolsRun += i - start;
+        symbolsRun += i - start;
+
+        // splice the new checkpoints in; after a convergence the old ones from there on are kept
+        int tail = (converged ? nCheckpoints - old : 0);
+        int total = first + 1 + nNew + tail;
+        if (total > positions.length) {
+            int capacity = Math.max(2 * positions.length, total);
+            positions = Arrays.copyOf(positions, capacity);
+            states = Arrays.copyOf(states, capacity);
+            stackNodes = Arrays.copyOf(stackNodes, capacity);
+        }
+        System.arraycopy(positions, old, positions, first + 1 + nNew, tail);
+        System.arraycopy(states, old, states, first + 1 + nNew, tail);
+        System.arraycopy(stackNodes, old, stackNodes, first + 1 + nNew, tail);
+        System.arraycopy(newPositions, 0, positions, first + 1, nNew);
+        System.arraycopy(newStates, 0, states, first + 1, nNew);
+        System.arraycopy(newStacks, 0, stackNodes, first + 1, nNew);
+        nCheckpoints = total;
+        if (!converged) {
+            stuckAt = (stuck ? i : -1);
+            accepted = !stuck && pda.accepting[state];
+        }
+    }
+
+    /**
+     * @return number of input symbols run by the last edit, or by building the session
+     */
+    public long getLastSymbolsRun() {
+        return lastSymbolsRun;
+    }
+
+    /**
+     * @return number of input symbols run since the session was created
+     */
+    public long getSymbolsRun() {
+        return symbolsRun;
+    }
+
+    public int getCheckpointCount() {
+        return nCheckpoints;
+    }
+}
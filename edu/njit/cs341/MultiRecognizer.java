@@ -0,0 +1,254 @@
+package edu.njit.cs341;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks one input against several independent automata in a single pass. The input is read and
+ * decoded once and every symbol is handed to all automata that are still running, each with a
+ * {@link Recognizer} of its own; an automaton that gets stuck is dropped right away and the pass
+ * ends when none is left. The result for every automaton is the same as that of its own process().
+ *
+ * Text is split into multi-character terminals once for every group of automata with the same
+ * terminals, as they all split it the same way, with the tokenizer of the first automaton of the
+ * group; its terminal ids are mapped to those of the others. Automata whose terminals are single
+ * characters look every character up themselves, which costs no more than mapping an id. Tokens
+ * are looked up once in the union of the alphabets, which maps them to the terminal id of every
+ * automaton. A multi-recognizer is immutable and can be shared between threads, every call runs
+ * its own recognizers.
+ */
+public final class MultiRecognizer {
+
+    private final CompiledDPDA[] automata;
+    private final Map<String, Integer> unionIds = new HashMap<>();
+    private final int[][] terminalIds; // automaton x union id -> terminal id of the automaton or NO_SYMBOL
+    private final int[] direct;        // automata with single character terminals, fed characters
+    private final int[][] groups;      // other automata with the same terminals, the first one tokenizes
+    private final int[][] leadIds;     // automaton x terminal id of the first of its group -> terminal id
+
+    public MultiRecognizer(CompiledDPDA... automata) {
+        this.automata = automata.clone();
+        for (CompiledDPDA pda : automata) {
+            for (String terminal : pda.terminals) {
+                unionIds.putIfAbsent(terminal, unionIds.size());
+            }
+        }
+        terminalIds = new int[automata.length][unionIds.size()];
+        for (int k = 0; k < automata.length; k++) {
+            Arrays.fill(terminalIds[k], CompiledDPDA.NO_SYMBOL);
+            for (int id = 0; id < automata[k].terminals.length; id++) {
+                terminalIds[k][unionIds.get(automata[k].terminals[id])] = id;
+            }
+        }
+        List<Integer> single = new ArrayList<>();
+        Map<Set<String>, List<Integer>> byTerminals = new LinkedHashMap<>();
+        for (int k = 0; k < automata.length; k++) {
+            if (automata[k].tokenizer().isSingleCharacter()) {
+                single.add(k);
+            } else {
+                byTerminals.computeIfAbsent(new HashSet<>(Arrays.asList(automata[k].terminals)),
+                        t -> new ArrayList<>()).add(k);
+            }
+        }
+        direct = single.stream().mapToInt(Integer::intValue).toArray();
+        groups = new int[byTerminals.size()][];
+        leadIds = new int[automata.length][];
+        int g = 0;
+        for (List<Integer> members : byTerminals.values()) {
+            int[] group = members.stream().mapToInt(Integer::intValue).toArray();
+            String[] leadTerminals = automata[group[0]].terminals;
+            for (int k : group) {
+                leadIds[k] = new int[leadTerminals.length];
+                for (int id = 0; id < leadTerminals.length; id++) {
+                    leadIds[k][id] = terminalIds[k][unionIds.get(leadTerminals[id])];
+                }
+            }
+            groups[g++] = group;
+        }
+    }
+
+    public MultiRecognizer(List<CompiledDPDA> automata) {
+        this(automata.toArray(new CompiledDPDA[0]));
+    }
+
+    public int size() {
+        return automata.length;
+    }
+
+    public CompiledDPDA get(int k) {
+        return automata[k];
+    }
+
+    /**
+     * @param input input string, split into the terminals of every automaton by longest match
+     * @return for every automaton whether it accepts the input, in the order they were given
+     */
+    public boolean[] accepts(CharSequence input) {
+        Recognizer[] recognizers = newRecognizers();
+        int[] running = direct.clone();
+        int nRunning = running.length;
+        Group[] scanning = runningGroups(recognizers);
+        int nScanning = scanning.length;
+        int n = input.length();
+        for (int i = 0; i < n && nRunning + nScanning > 0; i++) {
+            char c = input.charAt(i);
+            for (int j = 0; j < nRunning; j++) {
+                if (!recognizers[running[j]].feed(c)) {
+                    running[j--] = running[--nRunning];
+                }
+            }
+            for (int g = 0; g < nScanning; g++) {
+                if (!scanning[g].feed(c)) {
+                    scanning[g--] = scanning[--nScanning];
+                }
+            }
+        }
+        return finish(recognizers, running, nRunning, scanning, nScanning);
+    }
+
+    /**
+     * @param input remaining bytes of the buffer, read as the characters with the same (unsigned)
+     *              value; the buffer position is not changed
+     * @return for every automaton whether it accepts the input, in the order they were given
+     */
+    public boolean[] accepts(ByteBuffer input) {
+        Recognizer[] recognizers = newRecognizers();
+        int[] running = direct.clone();
+        int nRunning = running.length;
+        Group[] scanning = runningGroups(recognizers);
+        int nScanning = scanning.length;
+        int limit = input.limit();
+        for (int i = input.position(); i < limit && nRunning + nScanning > 0; i++) {
+            char c = (char) (input.get(i) & 0xFF);
+            for (int j = 0; j < nRunning; j++) {
+                if (!recognizers[running[j]].feed(c)) {
+                    running[j--] = running[--nRunning];
+                }
+            }
+            for (int g = 0; g < nScanning; g++) {
+                if (!scanning[g].feed(c)) {
+                    scanning[g--] = scanning[--nScanning];
+                }
+            }
+        }
+        return finish(recognizers, running, nRunning, scanning, nScanning);
+    }
+
+    /**
+     * @param tokens input tokens
+     * @return for every automaton whether it accepts the input, in the order they were given
+     */
+    public boolean[] accepts(List<TerminalToken> tokens) {
+        Recognizer[] recognizers = newRecognizers();
+        int[] running = running();
+        int nRunning = running.length;
+        for (TerminalToken token : tokens) {
+            if (nRunning == 0) {
+                break;
+            }
+            Integer unionId = unionIds.get(token.value);
+            for (int j = 0; j < nRunning; j++) {
+                int k = running[j];
+                int symbol = (unionId == null ? CompiledDPDA.NO_SYMBOL : terminalIds[k][unionId]);
+                if (!recognizers[k].feed(symbol)) {
+                    running[j--] = running[--nRunning];
+                }
+            }
+        }
+        return finish(recognizers, running, nRunning);
+    }
+
+    private Recognizer[] newRecognizers() {
+        Recognizer[] recognizers = new Recognizer[automata.length];
+        for (int k = 0; k < automata.length; k++) {
+            recognizers[k] = automata[k].newRecognizer();
+        }
+        return recognizers;
+    }
+
+    private int[] running() {
+        int[] running = new int[automata.length];
+        for (int k = 0; k < running.length; k++) {
+            running[k] = k;
+        }
+        return running;
+    }
+
+    private Group[] runningGroups(Recognizer[] recognizers) {
+        Group[] running = new Group[groups.length];
+        for (int g = 0; g < running.length; g++) {
+            running[g] = new Group(recognizers, groups[g]);
+        }
+        return running;
+    }
+
+    // as below, after the text left in the scanners of the groups has been split
+    private static boolean[] finish(Recognizer[] recognizers, int[] running, int nRunning,
+                                    Group[] scanning, int nScanning) {
+        boolean[] results = finish(recognizers, running, nRunning);
+        for (int g = 0; g < nScanning; g++) {
+            Group group = scanning[g];
+            group.flush();
+            for (int j = 0; j < group.nRunning; j++) {
+                results[group.running[j]] = recognizers[group.running[j]].finish();
+            }
+        }
+        return results;
+    }
+
+    // automata dropped on the way reject, the others finish the input
+    private static boolean[] finish(Recognizer[] recognizers, int[] running, int nRunning) {
+        boolean[] results = new boolean[recognizers.length];
+        for (int j = 0; j < nRunning; j++) {
+            results[running[j]] = recognizers[running[j]].finish();
+        }
+        return results;
+    }
+
+    /**
+     * Tokenizes the text for the automata of a group and hands every token to those of them that
+     * are still running
+     */
+    private final class Group implements TerminalTokenizer.Sink {
+        private final Recognizer[] recognizers;
+        private final TerminalTokenizer.Scanner scanner;
+        private final int[] running;
+        private int nRunning;
+
+        Group(Recognizer[] recognizers, int[] members) {
+            this.recognizers = recognizers;
+            this.scanner = automata[members[0]].tokenizer().new Scanner();
+            this.running = members.clone();
+            this.nRunning = running.length;
+        }
+
+        /**
+         * @return false if every automaton of the group is stuck
+         */
+        boolean feed(char c) {
+            return scanner.feed(c, this);
+        }
+
+        void flush() {
+            scanner.flush(this);
+        }
+
+        @Override
+        public boolean feed(int symbol) {
+            for (int j = 0; j < nRunning; j++) {
+                int k = running[j];
+                if (!recognizers[k].feed(symbol == CompiledDPDA.NO_SYMBOL ? symbol : leadIds[k][symbol])) {
+                    running[j--] = running[--nRunning];
+                }
+            }
+            return nRunning > 0;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package edu.njit.cs341;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a smaller {@link CompiledDPDA} that accepts the same inputs:
+ * <ul>
+ * <li>states that cannot be reached from the start state are dropped;</li>
+ * <li>states from which no accepting state can be reached are dead, they are replaced by a single
+ * sink state without transitions, so a run that enters one is rejected right away instead of
+ * reading the rest of its input;</li>
+ * <li>states that behave the same are merged: two states are equivalent if for every input and
+ * stack top they take transitions with the same input, pop and push into equivalent states.
+ * The classes are found by partition refinement starting from accepting and non-accepting
+ * states;</li>
+ * <li>transitions that never get picked and stack symbols that are never pushed are dropped, and
+ * states and stack symbols are renumbered densely, the states in breadth first order from the
+ * start state.</li>
+ * </ul>
+ * Reachability is taken over the transition graph regardless of the stack, which can only keep
+ * too much, never too little. The terminals stay as they are, since they decide how text is split
+ * into tokens. Transition ids and state numbers of the result have nothing to do with those of
+ * the original automaton.
+ */
+final class Optimizer {
+
+    private static final int SINK_CLASS = 0;
+
+    private final CompiledDPDA pda;
+    private final int inputSlots;
+    private final int topSlots;
+    private final int epsTop;
+
+    // scratch space of successors()
+    private final int[] seen;
+    private final int[] scratch;
+
+    private Optimizer(CompiledDPDA pda) {
+        this.pda = pda;
+        this.inputSlots = pda.inputSlots;
+        this.topSlots = pda.topSlots;
+        this.epsTop = topSlots - 1;
+        this.seen = new int[pda.nStates];
+        this.scratch = new int[pda.nStates];
+        Arrays.fill(seen, -1);
+    }
+
+    static CompiledDPDA optimize(CompiledDPDA pda) {
+        CompiledDPDA result = new Optimizer(pda).optimize();
+        // with states and stack symbols gone, more states can turn out unreachable or equivalent
+        for (;;) {
+            CompiledDPDA next = new Optimizer(result).optimize();
+            if (next.nStates == result.nStates && next.transFrom.length == result.transFrom.length
+                    && next.stackSymbols.length == result.stackSymbols.length) {
+                return result;
+            }
+            result = next;
+        }
+    }
+
+    private CompiledDPDA optimize() {
+        int nStates = pda.nStates;
+        int[] queue = new int[nStates];
+
+        // the stack tops that can come up are the empty stack and the symbols pushed by reachable
+        // states, and only transitions on those tops take the automaton anywhere
+        boolean[] pushed = new boolean[topSlots];
+        pushed[epsTop] = true;
+        boolean[] reachable;
+        int[] tops;
+        do {
+            tops = tops(pushed);
+            reachable = new boolean[nStates];
+            int tail = 0;
+            reachable[pda.startState] = true;
+            queue[tail++] = pda.startState;
+            for (int head = 0; head < tail; head++) {
+                for (int next : successors(queue[head], tops)) {
+                    if (!reachable[next]) {
+                        reachable[next] = true;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        } while (push(reachable, tops, pushed));
+
+        List<List<Integer>> predecessors = new ArrayList<>(nStates);
+        for (int state = 0; state < nStates; state++) {
+            predecessors.add(new ArrayList<>());
+        }
+        for (int state = 0; state < nStates; state++) {
+            if (reachable[state]) {
+                for (int next : successors(state, tops)) {
+                    predecessors.get(next).add(state);
+                }
+            }
+        }
+        boolean[] live = new boolean[nStates];
+        int tail = 0;
+        for (int state = 0; state < nStates; state++) {
+            if (reachable[state] && pda.accepting[state]) {
+                live[state] = true;
+                queue[tail++] = state;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            for (int previous : predecessors.get(queue[head])) {
+                if (!live[previous]) {
+                    live[previous] = true;
+                    queue[tail++] = previous;
+                }
+            }
+        }
+
+        // only the symbols pushed on the way to an accepting state are kept
+        boolean[] kept = new boolean[topSlots];
+        kept[epsTop] = true;
+        push(live, tops, kept);
+        tops = tops(kept);
+        int[] symbolIds = new int[topSlots - 1];
+        Arrays.fill(symbolIds, CompiledDPDA.NO_SYMBOL);
+        String[] symbolNames = new String[tops.length - 1];
+        for (int k = 0; k < symbolNames.length; k++) {
+            symbolIds[tops[k]] = k;
+            symbolNames[k] = pda.stackSymbols[tops[k]];
+        }
+
+        int[] classes = refine(live, tops, symbolIds);
+        return rebuild(live, tops, symbolIds, classes, symbolNames);
+    }
+
+    private int cell(int state, int input, int top) {
+        return pda.table[(state * inputSlots + input) * topSlots + top];
+    }
+
+    private int[] tops(boolean[] pushed) {
+        int[] tops = new int[topSlots];
+        int n = 0;
+        for (int top = 0; top < topSlots; top++) {
+            if (pushed[top]) {
+                tops[n++] = top;
+            }
+        }
+        return Arrays.copyOf(tops, n);
+    }
+
+    /**
+     * Marks the symbols pushed by the transitions out of the given states on the given tops
+     * @return true if any symbol was not marked yet
+     */
+    private boolean push(boolean[] states, int[] tops, boolean[] pushed) {
+        boolean added = false;
+        for (int state = 0; state < pda.nStates; state++) {
+            if (!states[state]) {
+                continue;
+            }
+            for (int input = 0; input < inputSlots; input++) {
+                for (int top : tops) {
+                    int id = cell(state, input, top);
+                    if (id == CompiledDPDA.NO_TRANSITION) {
+                        continue;
+                    }
+                    for (int symbol : pda.transPush[id]) {
+                        added |= !pushed[symbol];
+                        pushed[symbol] = true;
+                    }
+                }
+            }
+        }
+        return added;
+    }
+
+    // distinct states the table goes to from state on the given tops
+    private int[] successors(int state, int[] tops) {
+        int n = 0;
+        for (int input = 0; input < inputSlots; input++) {
+            for (int top : tops) {
+                int id = cell(state, input, top);
+                if (id != CompiledDPDA.NO_TRANSITION && seen[pda.transNext[id]] != state) {
+                    seen[pda.transNext[id]] = state;
+                    scratch[n++] = pda.transNext[id];
+                }
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            seen[scratch[k]] = -1;
+        }
+        return Arrays.copyOf(scratch, n);
+    }
+
+    /**
+     * Partition refinement of the live states, dead states all go to SINK_CLASS
+     * @return class of every state
+     */
+    private int[] refine(boolean[] live, int[] tops, int[] symbolIds) {
+        int nStates = pda.nStates;
+        // transitions that take the same kind of step, apart from the state they go to, share a kind
+        Map<List<Integer>, Integer> kinds = new HashMap<>();
+        int[] kindOf = new int[pda.transFrom.length];
+        Arrays.fill(kindOf, -1);
+        int[] classes = new int[nStates];
+        int nClasses = 1;
+        for (int state = 0; state < nStates; state++) {
+            classes[state] = (!live[state] ? SINK_CLASS : pda.accepting[state] ? 1 : 2);
+        }
+        for (int state = 0; state < nStates; state++) {
+            nClasses = Math.max(nClasses, classes[state] + 1);
+        }
+        for (;;) {
+            Map<Signature, Integer> signatures = new HashMap<>();
+            int[] refined = new int[nStates];
+            for (int state = 0; state < nStates; state++) {
+                if (!live[state]) {
+                    refined[state] = SINK_CLASS;
+                    continue;
+                }
+                int[] signature = new int[1 + 2 * inputSlots * tops.length];
+                int k = 0;
+                signature[k++] = classes[state];
+                for (int input = 0; input < inputSlots; input++) {
+                    for (int top : tops) {
+                        int id = cell(state, input, top);
+                        if (id == CompiledDPDA.NO_TRANSITION) {
+                            signature[k++] = -1;
+                            signature[k++] = -1;
+                            continue;
+                        }
+                        if (kindOf[id] < 0) {
+                            List<Integer> kind = new ArrayList<>();
+                            kind.add(pda.transInput[id] == CompiledDPDA.NO_SYMBOL ? 0 : 1);
+                            kind.add(pda.transPop[id] == CompiledDPDA.NO_SYMBOL ? -1 : symbolIds[pda.transPop[id]]);
+                            for (int symbol : pda.transPush[id]) {
+                                kind.add(symbolIds[symbol]);
+                            }
+                            kindOf[id] = kinds.computeIfAbsent(kind, key -> kinds.size());
+                        }
+                        signature[k++] = kindOf[id];
+                        signature[k++] = classes[pda.transNext[id]];
+                    }
+                }
+                Signature key = new Signature(signature);
+                Integer cls = signatures.get(key);
+                if (cls == null) {
+                    cls = signatures.size() + 1;
+                    signatures.put(key, cls);
+                }
+                refined[state] = cls;
+            }
+            // classes only ever split, so the partition is stable once their number stays the same
+            int refinedClasses = signatures.size() + 1;
+            classes = refined;
+            if (refinedClasses == nClasses) {
+                return classes;
+            }
+            nClasses = refinedClasses;
+        }
+    }
+
+    private static final class Signature {
+        final int[] values;
+        final int hash;
+
+        Signature(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Signature && Arrays.equals(values, ((Signature) obj).values);
+        }
+    }
+
+    private CompiledDPDA rebuild(boolean[] live, int[] tops, int[] symbolIds, int[] classes, String[] symbolNames) {
+        int nStates = pda.nStates;
+        int nClasses = 0;
+        for (int cls : classes) {
+            nClasses = Math.max(nClasses, cls + 1);
+        }
+        int[] representative = new int[nClasses];
+        Arrays.fill(representative, -1);
+        for (int state = 0; state < nStates; state++) {
+            if (representative[classes[state]] < 0) {
+                representative[classes[state]] = state;
+            }
+        }
+
+        // number the classes breadth first from the start state, the sink comes last if needed
+        int[] stateOf = new int[nClasses];
+        Arrays.fill(stateOf, -1);
+        int[] order = new int[nClasses];
+        int n = 0;
+        boolean sink = false;
+        if (live[pda.startState]) {
+            stateOf[classes[pda.startState]] = n;
+            order[n++] = classes[pda.startState];
+        } else {
+            sink = true;
+        }
+        for (int head = 0; head < n; head++) {
+            for (int next : successors(representative[order[head]], tops)) {
+                int cls = classes[next];
+                if (cls == SINK_CLASS) {
+                    sink = true;
+                } else if (stateOf[cls] < 0) {
+                    stateOf[cls] = n;
+                    order[n++] = cls;
+                }
+            }
+        }
+        int nLive = n;
+        if (sink) {
+            stateOf[SINK_CLASS] = n++;
+        }
+        boolean[] accepting = new boolean[n];
+
+        // the transitions picked by the table for the representatives, in their original order
+        // so that the table built from them resolves every cell the same way
+        List<Integer> kept = new ArrayList<>();
+        boolean[] used = new boolean[pda.transFrom.length];
+        for (int k = 0; k < nLive; k++) {
+            int state = representative[order[k]];
+            accepting[k] = pda.accepting[state];
+            for (int input = 0; input < inputSlots; input++) {
+                for (int top : tops) {
+                    int id = cell(state, input, top);
+                    if (id != CompiledDPDA.NO_TRANSITION) {
+                        used[id] = true;
+                    }
+                }
+            }
+            for (int id = 0; id < used.length; id++) {
+                if (used[id]) {
+                    kept.add(id);
+                    used[id] = false;
+                }
+            }
+        }
+        int m = kept.size();
+        int[] transFrom = new int[m];
+        int[] transInput = new int[m];
+        int[] transPop = new int[m];
+        int[] transNext = new int[m];
+        int[][] transPush = new int[m][];
+        for (int k = 0; k < m; k++) {
+            int id = kept.get(k);
+            transFrom[k] = stateOf[classes[pda.transFrom[id]]];
+            transInput[k] = pda.transInput[id];
+            transPop[k] = (pda.transPop[id] == CompiledDPDA.NO_SYMBOL ? CompiledDPDA.NO_SYMBOL : symbolIds[pda.transPop[id]]);
+            transNext[k] = stateOf[classes[pda.transNext[id]]];
+            transPush[k] = new int[pda.transPush[id].length];
+            for (int j = 0; j < transPush[k].length; j++) {
+                transPush[k][j] = symbolIds[pda.transPush[id][j]];
+            }
+        }
+        return new CompiledDPDA(n, (live[pda.startState] ? 0 : stateOf[SINK_CLASS]), accepting,
+                pda.terminals, symbolNames, transFrom, transInput, transPop, transNext, transPush);
+    }
+}
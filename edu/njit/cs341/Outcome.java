@@ -0,0 +1,20 @@
+package edu.njit.cs341;
+
+/**
+ * How a run of the automaton ended
+ */
+public enum Outcome {
+    /** the whole input was consumed and the automaton ended in an accepting state */
+    ACCEPTED,
+    /** no transition matched while there was still input left */
+    STUCK,
+    /** the whole input was consumed but the automaton ended in a non-accepting state */
+    NOT_ACCEPTING,
+    /** the automaton reached a chain of epsilon moves that never ends */
+    EPSILON_LOOP,
+    /**
+     * rejected early, as no continuation of the input within its length could be accepted any more;
+     * only runs without a listener end this way
+     */
+    INFEASIBLE
+}
@@ -0,0 +1,483 @@
+package edu.njit.cs341;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Recognizes a single very large input on all cores of a fork-join pool. The input is split into
+ * chunks and every chunk is run on its own, in parallel, from each state the automaton can be in
+ * at its start: the state reached by consuming the symbol before the chunk. The stack below the
+ * start of a chunk is unknown then, so a chunk's run is summarized as a decision tree over the
+ * symbols it pops from below: whenever the run needs the top of the stack below, the tree branches
+ * on that symbol (or on the stack being empty) and each branch is run on. The leaves give the state
+ * the chunk is left in and the symbols it leaves on the stack, or reject.
+ *
+ * The summaries are then stitched together in input order on the real stack, which gives the same
+ * result as process() over the whole input. A chunk whose tree grows beyond a budget, or that is
+ * entered in a state it was not run from, is run sequentially on the real stack instead. This
+ * works best on nested inputs whose chunks mostly pop what they push themselves, as in documents
+ * of matched brackets.
+ */
+public final class ParallelRecognizer {
+
+    // smallest chunk, shorter inputs are not worth splitting
+    static final int MIN_CHUNK = 1 << 16;
+
+    // size of the regions of a file mapped at a time, a mapping is limited to 2GB
+    private static final long MAP_REGION = 1L << 30;
+
+    // steps a chunk's summary may take per input symbol and entry state before it is given up
+    private static final int SPECULATION_FACTOR = 8;
+
+    private final CompiledDPDA pda;
+    private final ForkJoinPool pool;
+    private final int minChunk;
+    private final int[][] entryStates; // states reached by consuming each terminal
+    private final boolean[] topIndependent; // (state, input) cells that neither pop nor depend on the stack
+
+    public ParallelRecognizer(CompiledDPDA pda) {
+        this(pda, ForkJoinPool.commonPool());
+    }
+
+    public ParallelRecognizer(CompiledDPDA pda, ForkJoinPool pool) {
+        this(pda, pool, MIN_CHUNK);
+    }
+
+    ParallelRecognizer(CompiledDPDA pda, ForkJoinPool pool, int minChunk) {
+        this.pda = pda;
+        this.pool = pool;
+        this.minChunk = minChunk;
+        int nTerminals = pda.inputSlots - 1;
+        boolean[][] reached = new boolean[nTerminals][pda.nStates];
+        for (int id = 0; id < pda.transFrom.length; id++) {
+            if (pda.transInput[id] != CompiledDPDA.NO_SYMBOL) {
+                reached[pda.transInput[id]][pda.transNext[id]] = true;
+            }
+        }
+        entryStates = new int[nTerminals][];
+        for (int t = 0; t < nTerminals; t++) {
+            int[] states = new int[pda.nStates];
+            int n = 0;
+            for (int state = 0; state < pda.nStates; state++) {
+                if (reached[t][state]) {
+                    states[n++] = state;
+                }
+            }
+            entryStates[t] = Arrays.copyOf(states, n);
+        }
+        topIndependent = new boolean[pda.nStates * pda.inputSlots];
+        for (int state = 0; state < pda.nStates; state++) {
+            for (int input = 0; input < pda.inputSlots; input++) {
+                int base = (state * pda.inputSlots + input) * pda.topSlots;
+                int id = pda.table[base];
+                boolean independent = id == CompiledDPDA.NO_TRANSITION || pda.transPop[id] == CompiledDPDA.NO_SYMBOL;
+                for (int top = 1; top < pda.topSlots && independent; top++) {
+                    independent = pda.table[base + top] == id;
+                }
+                topIndependent[state * pda.inputSlots + input] = independent;
+            }
+        }
+    }
+
+    /**
+     * @param symbols terminal ids of the input (NO_SYMBOL for symbols outside the alphabet)
+     * @return true if the input is accepted
+     */
+    public boolean accepts(int[] symbols) {
+        return accepts(symbols, 0, symbols.length);
+    }
+
+    /**
+     * @return true if symbols[from..to) is accepted
+     */
+    public boolean accepts(int[] symbols, int from, int to) {
+        int chunkSize = chunkSize(to - from);
+        int nChunks = Math.max(1, (int) (((long) (to - from) + chunkSize - 1) / chunkSize));
+        Chunk[] chunks = new Chunk[nChunks];
+        for (int k = 0; k < nChunks; k++) {
+            int start = from + k * chunkSize;
+            int end = (k == nChunks - 1 ? to : start + chunkSize);
+            chunks[k] = new IntChunk(symbols, start, end, k == 0 ? CompiledDPDA.NO_SYMBOL : symbols[start - 1]);
+        }
+        return recognize(chunks);
+    }
+
+    /**
+     * Recognizes the contents of a file, each byte being a single character terminal. Alphabets
+     * with longer terminals are recognized sequentially by CompiledDPDA.acceptsFile()
+     * @param file input file
+     * @return true if the contents of the file are accepted
+     * @throws IOException if the file cannot be read
+     */
+    public boolean acceptsFile(Path file) throws IOException {
+        if (!pda.tokenizer().isSingleCharacter()) {
+            return pda.acceptsFile(file);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = Math.min(chunkSize(size), MAP_REGION);
+            int nChunks = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+            Chunk[] chunks = new Chunk[nChunks];
+            for (int k = 0; k < nChunks; k++) {
+                long start = k * chunkSize;
+                long end = (k == nChunks - 1 ? size : start + chunkSize);
+                // a chunk also maps the byte before it, which decides the states it can start in
+                long mapped = Math.max(0, start - 1);
+                ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, mapped, end - mapped);
+                chunks[k] = new ByteChunk(region, (int) (start - mapped));
+            }
+            return recognize(chunks);
+        }
+    }
+
+    private int chunkSize(long length) {
+        long perTask = length / (4L * Math.max(1, pool.getParallelism()));
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(minChunk, perTask));
+    }
+
+    private boolean recognize(Chunk[] chunks) {
+        Summary[] summaries = new Summary[chunks.length];
+        if (chunks.length > 1) {
+            pool.invoke(new SummaryTask(chunks, summaries, 0, chunks.length));
+        }
+        // stitch the summaries together on the real stack
+        SymbolStack stack = new SymbolStack();
+        int state = pda.startState;
+        for (int k = 0; k < chunks.length; k++) {
+            boolean last = (k == chunks.length - 1);
+            Summary summary = summaries[k];
+            int node = (summary == null ? Summary.NONE : summary.entry(state));
+            state = (node == Summary.NONE ? runSequential(chunks[k], state, stack, last)
+                    : summary.apply(node, stack));
+            if (state == Summary.REJECT) {
+                return false;
+            }
+        }
+        return pda.accepting[state];
+    }
+
+    @SuppressWarnings("serial") // never serialized, only forked
+    private final class SummaryTask extends RecursiveAction {
+        private final Chunk[] chunks;
+        private final Summary[] summaries;
+        private final int from;
+        private final int to;
+
+        SummaryTask(Chunk[] chunks, Summary[] summaries, int from, int to) {
+            this.chunks = chunks;
+            this.summaries = summaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SummaryTask(chunks, summaries, from, mid),
+                        new SummaryTask(chunks, summaries, mid, to));
+                return;
+            }
+            summaries[from] = summarize(chunks[from], from == 0, from == chunks.length - 1);
+        }
+    }
+
+    /**
+     * Runs a chunk from every state it can be entered in, the first chunk from the start state on
+     * an empty stack
+     * @return summary of the chunk, or null if it grew beyond the budget
+     */
+    private Summary summarize(Chunk chunk, boolean first, boolean last) {
+        int previous = chunk.previousSymbol();
+        int[] states = (first ? new int[] {pda.startState}
+                : previous == CompiledDPDA.NO_SYMBOL ? new int[0] : entryStates[previous]);
+        Summary summary = new Summary(pda.nStates, pda.topSlots,
+                (long) SPECULATION_FACTOR * (chunk.length() + 1) * Math.max(1, states.length));
+        SymbolStack local = new SymbolStack();
+        for (int state : states) {
+            int node = summary.run(chunk, last, state, 0, CompiledDPDA.NO_SYMBOL, first, local);
+            if (node == Summary.OVER_BUDGET) {
+                return null;
+            }
+            summary.entries[state] = node;
+        }
+        // run the branches of the decision nodes until the tree is complete
+        while (!summary.pending.isEmpty()) {
+            int node = summary.pending.poll();
+            for (int top = 0; top < pda.topSlots; top++) {
+                boolean empty = (top == pda.topSlots - 1);
+                int child = summary.run(chunk, last, summary.nodeState[node], summary.nodePosition[node],
+                        (empty ? CompiledDPDA.NO_SYMBOL : top), empty, local);
+                if (child == Summary.OVER_BUDGET) {
+                    return null;
+                }
+                summary.children[node][top] = child;
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Runs a chunk on the real stack
+     * @return state the chunk is left in, or Summary.REJECT
+     */
+    private int runSequential(Chunk chunk, int state, SymbolStack stack, boolean last) {
+        int epsInput = pda.inputSlots - 1;
+        int epsTop = pda.topSlots - 1;
+        int length = chunk.length();
+        int i = 0;
+        for (;;) {
+            if (i == length && !last) {
+                return state;
+            }
+            int symbol = (i < length ? chunk.symbol(i) : CompiledDPDA.NO_SYMBOL);
+            int input = (symbol == CompiledDPDA.NO_SYMBOL ? epsInput : symbol);
+            int top = (stack.isEmpty() ? epsTop : stack.top());
+            int id = pda.table[(state * pda.inputSlots + input) * pda.topSlots + top];
+            if (id == CompiledDPDA.NO_TRANSITION) {
+                return (i == length ? state : Summary.REJECT);
+            }
+            if (pda.transInput[id] != CompiledDPDA.NO_SYMBOL) {
+                i++;
+            } else {
+                int cell = state * pda.topSlots + top;
+                int next = pda.epsilon.next[cell];
+                if (next >= 0) {
+                    stack.apply(pda.epsilon.pop[cell], pda.epsilon.push[cell]);
+                    state = next;
+                    continue;
+                } else if (next == EpsilonAnalysis.LOOP) {
+                    return Summary.REJECT;
+                }
+            }
+            stack.apply(pda.transPop[id], pda.transPush[id]);
+            state = pda.transNext[id];
+        }
+    }
+
+    /**
+     * Decision tree of a chunk. A leaf holds the state the chunk is left in and the symbols it
+     * leaves on top of the stack, or rejects. A decision node is where the run needs the symbol
+     * below the part of the stack the chunk pushed itself: it has a child for every stack symbol,
+     * taken after popping that symbol, and one for an empty stack. Decision nodes are shared by all
+     * runs that get to the same state and position with nothing of their own left on the stack.
+     */
+    private final class Summary {
+        static final int NONE = -1;
+        static final int REJECT = -2;
+        static final int OVER_BUDGET = -3;
+
+        private final int[] entries;
+        private final int topSlots;
+        private long budget;
+
+        // nodes: for a leaf the state and pushed symbols, for a decision node the state and
+        // position it decides at and its children
+        private int nNodes = 0;
+        private int[] nodeState = new int[16];
+        private int[] nodePosition = new int[16];
+        private int[][] nodePush = new int[16][];
+        private int[][] children = new int[16][];
+        private final Map<Long, Integer> decisions = new HashMap<>();
+        private final ArrayDeque<Integer> pending = new ArrayDeque<>();
+
+        Summary(int nStates, int topSlots, long budget) {
+            this.entries = new int[nStates];
+            Arrays.fill(entries, NONE);
+            this.topSlots = topSlots;
+            this.budget = budget;
+        }
+
+        int entry(int state) {
+            return entries[state];
+        }
+
+        /**
+         * Runs the chunk from a position with the given symbol popped from below, or on an empty
+         * stack, until it ends, rejects or needs to look below its own stack
+         * @return node the run leads to, REJECT or OVER_BUDGET
+         */
+        int run(Chunk chunk, boolean last, int state, int i, int below, boolean empty, SymbolStack local) {
+            int epsInput = pda.inputSlots - 1;
+            int epsTop = topSlots - 1;
+            int length = chunk.length();
+            local.clear();
+            if (below != CompiledDPDA.NO_SYMBOL) {
+                local.push(below);
+            }
+            for (;;) {
+                if (i == length && !last) {
+                    return leaf(state, local);
+                }
+                int symbol = (i < length ? chunk.symbol(i) : CompiledDPDA.NO_SYMBOL);
+                int input = (symbol == CompiledDPDA.NO_SYMBOL ? epsInput : symbol);
+                int top;
+                boolean unknown = false;
+                if (!local.isEmpty()) {
+                    top = local.top();
+                } else if (empty) {
+                    top = epsTop;
+                } else if (topIndependent[state * pda.inputSlots + input]) {
+                    // the move is the same whatever is below, take it without looking
+                    top = epsTop;
+                    unknown = true;
+                } else {
+                    return decision(state, i);
+                }
+                int id = pda.table[(state * pda.inputSlots + input) * topSlots + top];
+                if (id == CompiledDPDA.NO_TRANSITION) {
+                    return (i == length ? leaf(state, local) : REJECT);
+                }
+                if (--budget < 0) {
+                    return OVER_BUDGET;
+                }
+                if (pda.transInput[id] != CompiledDPDA.NO_SYMBOL) {
+                    i++;
+                } else {
+                    int cell = state * topSlots + top;
+                    int next = pda.epsilon.next[cell];
+                    if (next == EpsilonAnalysis.LOOP && !unknown) {
+                        return REJECT;
+                    } else if (next >= 0 && !unknown) {
+                        // a chain from an empty stack assumes nothing is below, it is only
+                        // collapsed when that is known
+                        local.apply(pda.epsilon.pop[cell], pda.epsilon.push[cell]);
+                        state = next;
+                        continue;
+                    }
+                }
+                local.apply(pda.transPop[id], pda.transPush[id]);
+                state = pda.transNext[id];
+            }
+        }
+
+        private int leaf(int state, SymbolStack local) {
+            int[] push = new int[local.depth()];
+            for (int k = 0; k < push.length; k++) {
+                push[k] = local.get(push.length - 1 - k);
+            }
+            int node = newNode(state, -1);
+            nodePush[node] = push;
+            return node;
+        }
+
+        private int decision(int state, int i) {
+            long key = (long) i * entries.length + state;
+            Integer node = decisions.get(key);
+            if (node == null) {
+                node = newNode(state, i);
+                children[node] = new int[topSlots];
+                decisions.put(key, node);
+                pending.add(node);
+            }
+            return node;
+        }
+
+        private int newNode(int state, int position) {
+            if (nNodes == nodeState.length) {
+                nodeState = Arrays.copyOf(nodeState, 2 * nNodes);
+                nodePosition = Arrays.copyOf(nodePosition, 2 * nNodes);
+                nodePush = Arrays.copyOf(nodePush, 2 * nNodes);
+                children = Arrays.copyOf(children, 2 * nNodes);
+            }
+            nodeState[nNodes] = state;
+            nodePosition[nNodes] = position;
+            return nNodes++;
+        }
+
+        /**
+         * Follows the tree from a node on the real stack
+         * @return state the chunk is left in, or REJECT
+         */
+        int apply(int node, SymbolStack stack) {
+            while (node >= 0 && children[node] != null) {
+                node = children[node][stack.isEmpty() ? topSlots - 1 : stack.pop()];
+            }
+            if (node == REJECT) {
+                return REJECT;
+            }
+            stack.apply(CompiledDPDA.NO_SYMBOL, nodePush[node]);
+            return nodeState[node];
+        }
+    }
+
+    /**
+     * Part of the input summarized as a unit
+     */
+    private interface Chunk {
+        int length();
+
+        /**
+         * @return terminal id of the symbol at index i of the chunk, or NO_SYMBOL
+         */
+        int symbol(int i);
+
+        /**
+         * @return terminal id of the symbol before the chunk, NO_SYMBOL for the first chunk
+         */
+        int previousSymbol();
+    }
+
+    private static final class IntChunk implements Chunk {
+        private final int[] symbols;
+        private final int start;
+        private final int length;
+        private final int previous;
+
+        IntChunk(int[] symbols, int start, int end, int previous) {
+            this.symbols = symbols;
+            this.start = start;
+            this.length = end - start;
+            this.previous = previous;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public int symbol(int i) {
+            return symbols[start + i];
+        }
+
+        @Override
+        public int previousSymbol() {
+            return previous;
+        }
+    }
+
+    private final class ByteChunk implements Chunk {
+        private final ByteBuffer region;
+        private final int offset;
+
+        ByteChunk(ByteBuffer region, int offset) {
+            this.region = region;
+            this.offset = offset;
+        }
+
+        @Override
+        public int length() {
+            return region.limit() - offset;
+        }
+
+        @Override
+        public int symbol(int i) {
+            return pda.symbolOf(region.get(offset + i));
+        }
+
+        @Override
+        public int previousSymbol() {
+            return (offset == 0 ? CompiledDPDA.NO_SYMBOL : pda.symbolOf(region.get(0)));
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package edu.njit.cs341;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accept-only recognition that remembers where earlier inputs got to, for inputs that share long
+ * prefixes such as a common envelope or header. While an input is recognized, the configuration
+ * is checkpointed every few symbols into a trie keyed by the input prefix; a later input resumes
+ * from the checkpoint of its longest cached prefix instead of the start state. Results of whole
+ * inputs are cached as well, so an exact repeat costs a single lookup.
+ *
+ * A checkpoint only keeps the part of the stack that changed since its parent checkpoint, the rest
+ * is shared with the parent. Both caches are bounded: the least recently used checkpoints without
+ * children and the least recently used results are evicted first. The cache is thread-safe,
+ * lookups and updates are synchronized but the recognition itself is not.
+ */
+public final class PrefixCache {
+
+    static final int DEFAULT_INTERVAL = 64;
+
+    private final CompiledDPDA pda;
+    private final int interval;
+    private final int maxCheckpoints;
+    private final int maxResults;
+
+    private final Checkpoint root;
+    // all checkpoints but the root, least recently used first
+    private final LinkedHashMap<Checkpoint, Boolean> checkpoints = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<InputKey, Boolean> results;
+
+    private long resultHits = 0;
+    private long resultMisses = 0;
+    private long checkpointHits = 0;
+    private long checkpointMisses = 0;
+    private long symbolsSkipped = 0;
+    private long symbolsRun = 0;
+
+    /**
+     * Configuration after a prefix of the input; the stack is the first keptDepth symbols of the
+     * parent's stack followed by pushed
+     */
+    private static final class Checkpoint {
+        final Checkpoint parent;
+        final int[] block;          // symbols from the parent to here
+        final int state;
+        final boolean stuck;        // the prefix already gets the automaton stuck
+        final int keptDepth;
+        final int[] pushed;         // bottom first
+        final List<Checkpoint> children = new ArrayList<>(1);
+
+        Checkpoint(Checkpoint parent, int[] block, int state, boolean stuck, int keptDepth, int[] pushed) {
+            this.parent = parent;
+            this.block = block;
+            this.state = state;
+            this.stuck = stuck;
+            this.keptDepth = keptDepth;
+            this.pushed = pushed;
+        }
+
+        // inputs sharing a prefix mostly share the blocks as well, so there are few children
+        Checkpoint child(int[] symbols, int from, int to) {
+            for (Checkpoint child : children) {
+                if (child.block[0] == symbols[from]
+                        && Arrays.equals(child.block, 0, child.block.length, symbols, from, to)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class InputKey {
+        final int[] symbols;
+        final int hash;
+
+        InputKey(int[] symbols) {
+            this.symbols = symbols;
+            this.hash = Arrays.hashCode(symbols);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof InputKey && Arrays.equals(symbols, ((InputKey) obj).symbols);
+        }
+    }
+
+    public PrefixCache(CompiledDPDA pda, int maxCheckpoints, int maxResults) {
+        this(pda, maxCheckpoints, maxResults, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * @param pda automaton
+     * @param maxCheckpoints number of checkpoints kept
+     * @param maxResults number of whole-input results kept
+     * @param interval number of input symbols between checkpoints
+     */
+    public PrefixCache(CompiledDPDA pda, int maxCheckpoints, int maxResults, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        this.pda = pda;
+        this.interval = interval;
+        this.maxCheckpoints = maxCheckpoints;
+        this.maxResults = maxResults;
+        this.root = new Checkpoint(null, new int[0], pda.startState, false, 0, new int[0]);
+        this.results = new LinkedHashMap<InputKey, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<InputKey, Boolean> eldest) {
+                return size() > PrefixCache.this.maxResults;
+            }
+        };
+    }
+
+    /**
+     * @param input input string, split into terminals by longest match
+     * @return true if the input is accepted
+     */
+    public boolean accepts(CharSequence input) {
+        return accepts(pda.tokenizer().tokenize(input));
+    }
+
+    public boolean accepts(List<TerminalToken> tokens) {
+        return accepts(pda.toSymbols(tokens));
+    }
+
+    /**
+     * @param symbols terminal ids of the input (NO_SYMBOL for symbols outside the alphabet)
+     * @return true if the input is accepted
+     */
+    public boolean accepts(int[] symbols) {
+        InputKey key = new InputKey(symbols);
+        Checkpoint checkpoint = root;
+        int position = 0;
+        synchronized (this) {
+            Boolean result = results.get(key);
+            if (result != null) {
+                resultHits++;
+                return result;
+            }
+            resultMisses++;
+            while (position + interval <= symbols.length) {
+                Checkpoint child = checkpoint.child(symbols, position, position + interval);
+                if (child == null) {
+                    break;
+                }
+                checkpoints.get(child);
+                checkpoint = child;
+                position += interval;
+            }
+            if (checkpoint == root) {
+                checkpointMisses++;
+            } else {
+                checkpointHits++;
+                symbolsSkipped += position;
+            }
+        }
+        boolean accepted = (checkpoint.stuck ? false : run(symbols, checkpoint, position));
+        synchronized (this) {
+            results.put(new InputKey(symbols.clone()), accepted);
+        }
+        return accepted;
+    }
+
+    /**
+     * Runs the rest of the input from a checkpoint, adding checkpoints along the way
+     */
+    private boolean run(int[] symbols, Checkpoint from, int position) {
+        int epsInput = pda.inputSlots - 1;
+        int epsTop = pda.topSlots - 1;
+        SymbolStack stack = restore(from);
+        int state = from.state;
+        int start = position;
+        int i = position;
+        int low = stack.depth();   // lowest stack since the last checkpoint
+        Checkpoint parent = from;
+        List<Checkpoint> added = new ArrayList<>();
+        boolean stuck = false;
+        for (;;) {
+            if (i == position + interval) {
+                Checkpoint checkpoint = snapshot(parent, symbols, position, i, state, false, stack, low);
+                added.add(checkpoint);
+                parent = checkpoint;
+                position = i;
+                low = stack.depth();
+            }
+            int input = (i < symbols.length && symbols[i] != CompiledDPDA.NO_SYMBOL ? symbols[i] : epsInput);
+            int top = (stack.isEmpty() ? epsTop : stack.top());
+            int id = pda.table[(state * pda.inputSlots + input) * pda.topSlots + top];
+            if (id == CompiledDPDA.NO_TRANSITION) {
+                stuck = i < symbols.length;
+                break;
+            }
+            int pop = pda.transPop[id];
+            int[] push = pda.transPush[id];
+            int next = pda.transNext[id];
+            if (pda.transInput[id] != CompiledDPDA.NO_SYMBOL) {
+                i++;
+            } else {
+                // take the whole chain of epsilon moves at once
+                int cell = state * pda.topSlots + top;
+                if (pda.epsilon.next[cell] == EpsilonAnalysis.LOOP) {
+                    stuck = true;
+                    break;
+                } else if (pda.epsilon.next[cell] >= 0) {
+                    pop = pda.epsilon.pop[cell];
+                    push = pda.epsilon.push[cell];
+                    next = pda.epsilon.next[cell];
+                }
+            }
+            if (pop != CompiledDPDA.NO_SYMBOL) {
+                stack.pop();
+                low = Math.min(low, stack.depth());
+            }
+            stack.apply(CompiledDPDA.NO_SYMBOL, push);
+            state = next;
+        }
+        if (stuck && i < position + interval && position + interval <= symbols.length) {
+            // remember that this prefix gets stuck, so inputs sharing it are rejected right away
+            added.add(snapshot(parent, symbols, position, position + interval, state, true, stack, low));
+        }
+        synchronized (this) {
+            symbolsRun += i - start;
+            insert(added);
+        }
+        return !stuck && pda.accepting[state];
+    }
+
+    private static Checkpoint snapshot(Checkpoint parent, int[] symbols, int from, int to, int state,
+                                       boolean stuck, SymbolStack stack, int low) {
+        int[] pushed = new int[stack.depth() - low];
+        for (int k = 0; k < pushed.length; k++) {
+            pushed[k] = stack.get(low + k);
+        }
+        return new Checkpoint(parent, Arrays.copyOfRange(symbols, from, to), state, stuck, low, pushed);
+    }
+
+    private static SymbolStack restore(Checkpoint checkpoint) {
+        List<Checkpoint> path = new ArrayList<>();
+        for (Checkpoint c = checkpoint; c != null; c = c.parent) {
+            path.add(c);
+        }
+        SymbolStack stack = new SymbolStack();
+        for (int k = path.size() - 1; k >= 0; k--) {
+            Checkpoint c = path.get(k);
+            while (stack.depth() > c.keptDepth) {
+                stack.pop();
+            }
+            for (int symbol : c.pushed) {
+                stack.push(symbol);
+            }
+        }
+        return stack;
+    }
+
+    // links new checkpoints into the trie and evicts the least recently used ones over the limit
+    private void insert(List<Checkpoint> added) {
+        for (Checkpoint checkpoint : added) {
+            Checkpoint parent = checkpoint.parent;
+            if (parent != root && !checkpoints.containsKey(parent)) {
+                // the parent was evicted in the meantime
+                break;
+            }
+            if (parent.child(checkpoint.block, 0, checkpoint.block.length) != null) {
+                // already added by another input
+                break;
+            }
+            parent.children.add(checkpoint);
+            checkpoints.put(checkpoint, Boolean.TRUE);
+        }
+        evict();
+    }
+
+    // only checkpoints without children can go, the eldest first; a parent is used before its
+    // children, so one whose last child is evicted is the eldest checkpoint left without children
+    private void evict() {
+        ArrayDeque<Checkpoint> freed = new ArrayDeque<>();
+        Iterator<Checkpoint> eldest = null;
+        while (checkpoints.size() > maxCheckpoints) {
+            Checkpoint checkpoint = freed.poll();
+            if (checkpoint != null) {
+                checkpoints.remove(checkpoint);
+                eldest = null;
+            } else {
+                if (eldest == null) {
+                    eldest = checkpoints.keySet().iterator();
+                }
+                checkpoint = eldest.next();
+                if (!checkpoint.children.isEmpty()) {
+                    continue;
+                }
+                eldest.remove();
+            }
+            Checkpoint parent = checkpoint.parent;
+            parent.children.remove(checkpoint);
+            if (parent != root && parent.children.isEmpty()) {
+                freed.push(parent);
+            }
+        }
+    }
+
+    /**
+     * Drops all checkpoints and results, the statistics are kept
+     */
+    public synchronized void clear() {
+        checkpoints.clear();
+        root.children.clear();
+        results.clear();
+    }
+
+    public synchronized long getResultHits() {
+        return resultHits;
+    }
+
+    public synchronized long getResultMisses() {
+        return resultMisses;
+    }
+
+    /**
+     * @return number of inputs that resumed from a checkpoint
+     */
+    public synchronized long getCheckpointHits() {
+        return checkpointHits;
+    }
+
+    /**
+     * @return number of inputs that had to start from the start state
+     */
+    public synchronized long getCheckpointMisses() {
+        return checkpointMisses;
+    }
+
+    /**
+     * @return number of input symbols not run again thanks to the checkpoints
+     */
+    public synchronized long getSymbolsSkipped() {
+        return symbolsSkipped;
+    }
+
+    /**
+     * @return number of input symbols run
+     */
+    public synchronized long getSymbolsRun() {
+        return symbolsRun;
+    }
+
+    public synchronized int getCheckpointCount() {
+        return checkpoints.size();
+    }
+
+    public synchronized int getResultCount() {
+        return results.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "results=" + results.size() + ",resultHits=" + resultHits + ",resultMisses=" + resultMisses
+                + ",checkpoints=" + checkpoints.size() + ",checkpointHits=" + checkpointHits
+                + ",checkpointMisses=" + checkpointMisses + ",symbolsSkipped=" + symbolsSkipped
+                + ",symbolsRun=" + symbolsRun;
+    }
+}
@@ -0,0 +1,275 @@
+package edu.njit.cs341;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Resumable recognizer for a {@link CompiledDPDA} that is fed the input a symbol or a chunk at a
+ * time. The current state and stack are kept between calls, so unbounded streams can be checked
+ * without materializing the input. Feeding a symbol first takes all epsilon input moves the
+ * automaton prefers and then consumes the symbol; finish() takes the epsilon moves left at the end
+ * of the input. This gives the same result as process() over the concatenated input. Chains of
+ * epsilon moves are taken as single macro steps and an epsilon loop leaves the recognizer stuck.
+ *
+ * Characters and bytes are split into terminals of the automaton by a {@link TerminalTokenizer},
+ * by longest match when terminals have several characters; a token may span several calls to
+ * feed() and the last one is completed by finish(). Feeding terminal ids and feeding text should
+ * not be mixed while a token is incomplete. A recognizer is not thread-safe, use one per thread.
+ *
+ * An optional {@link ExecutionListener} is told about every transition taken and about the end of
+ * the run, when the automaton gets stuck or finish() is called. Without a listener the recognizer
+ * gets stuck as soon as no continuation of the input can be accepted any more.
+ *
+ * With a {@link StackMemory} the bottom of a deep stack is spilled off the heap. A run that is
+ * given up before it gets stuck or finishes should close the recognizer to give that storage back
+ * right away, otherwise it is given back once the recognizer is garbage collected.
+ */
+public final class Recognizer implements TerminalTokenizer.Sink, AutoCloseable {
+
+    private final CompiledDPDA pda;
+    private final ExecutionListener listener;
+    private final TerminalTokenizer.Scanner scanner; // null if every character is a terminal
+    private final SymbolStack stack;
+    private final StackMemory memory; // null if the stack stays on the heap
+    private final int epsInput;
+    private final int epsTop;
+    private int state;
+    private long position = 0;
+    private long inputLimit = Long.MAX_VALUE; // number of symbols the whole input has at most
+    private boolean stuck = false;
+    private long epsilonSteps = 0;            // every symbol consumed is a step as well
+    private RunEvent event;
+
+    Recognizer(CompiledDPDA pda, ExecutionListener listener) {
+        this(pda, listener, pda.tokenizer());
+    }
+
+    Recognizer(CompiledDPDA pda, ExecutionListener listener, TerminalTokenizer tokenizer) {
+        this(pda, listener, tokenizer, null);
+    }
+
+    /**
+     * @param memory policy for spilling the bottom of a deep stack off the heap, or null
+     */
+    Recognizer(CompiledDPDA pda, ExecutionListener listener, TerminalTokenizer tokenizer, StackMemory memory) {
+        this.pda = pda;
+        this.listener = listener;
+        this.memory = memory;
+        this.stack = (memory == null ? new SymbolStack() : new SymbolStack(memory, pda.stackSymbols.length));
+        if (memory != null) {
+            // only the stack is held on to, not the recognizer
+            StackMemory.CLEANER.register(this, stack::clear);
+        }
+        this.scanner = (tokenizer.isSingleCharacter() ? null : tokenizer.new Scanner());
+        this.epsInput = pda.inputSlots - 1;
+        this.epsTop = pda.topSlots - 1;
+        this.state = pda.startState;
+        this.event = new RunEvent();
+        event.begin();
+    }
+
+    /**
+     * Consumes one input symbol
+     * @param symbol terminal id (NO_SYMBOL for a symbol outside the alphabet)
+     * @return false if the automaton is stuck
+     */
+    @Override
+    public boolean feed(int symbol) {
+        if (stuck) {
+            return false;
+        }
+        int input = (symbol == CompiledDPDA.NO_SYMBOL ? epsInput : symbol);
+        for (;;) {
+            int top = (stack.isEmpty() ? epsTop : stack.top());
+            int id = pda.table[(state * pda.inputSlots + input) * pda.topSlots + top];
+            if (id == CompiledDPDA.NO_TRANSITION) {
+                return halt(Outcome.STUCK);
+            }
+            if (listener == null && pda.feasibility.rejects(state * pda.topSlots + top, inputLimit - position)) {
+                return halt(Outcome.INFEASIBLE);
+            }
+            if (!step(id, top)) {
+                return halt(Outcome.EPSILON_LOOP);
+            }
+            if (pda.transInput[id] != CompiledDPDA.NO_SYMBOL) {
+                position++;
+                return true;
+            }
+        }
+    }
+
+    public boolean feed(TerminalToken token) {
+        return feed(pda.terminalId(token.value));
+    }
+
+    /**
+     * Consumes the next character of the text, a multi-character terminal is consumed once its last
+     * character has been fed and it is known to be the longest match
+     * @return false if the automaton is stuck
+     */
+    public boolean feed(char c) {
+        if (scanner == null) {
+            return feed(pda.symbolOf(c));
+        }
+        if (!stuck) {
+            scanner.feed(c, this);
+        }
+        return !stuck;
+    }
+
+    /**
+     * Consumes the terminals the characters of the sequence are made of
+     * @return false if the automaton is stuck
+     */
+    public boolean feed(CharSequence chars) {
+        int n = chars.length();
+        for (int i = 0; i < n && !stuck; i++) {
+            feed(chars.charAt(i));
+        }
+        return !stuck;
+    }
+
+    /**
+     * Consumes the terminals the remaining bytes of the buffer are made of, each byte being read as
+     * the character with the same (unsigned) value. The buffer position is left after the last
+     * byte consumed
+     * @return false if the automaton is stuck
+     */
+    public boolean feed(ByteBuffer bytes) {
+        int i = bytes.position();
+        int limit = bytes.limit();
+        while (i < limit && !stuck) {
+            feed((char) (bytes.get(i++) & 0xFF));
+        }
+        bytes.position(i);
+        return !stuck;
+    }
+
+    /**
+     * Takes the epsilon moves left at the end of the input
+     * @return true if the input fed so far is accepted
+     */
+    public boolean finish() {
+        if (stuck || (scanner != null && !scanner.flush(this))) {
+            return false;
+        }
+        for (;;) {
+            int top = (stack.isEmpty() ? epsTop : stack.top());
+            int id = pda.table[(state * pda.inputSlots + epsInput) * pda.topSlots + top];
+            if (id == CompiledDPDA.NO_TRANSITION) {
+                break;
+            }
+            if (!step(id, top)) {
+                return halt(Outcome.EPSILON_LOOP);
+            }
+        }
+        boolean accepted = pda.accepting[state];
+        Outcome outcome = (accepted ? Outcome.ACCEPTED : Outcome.NOT_ACCEPTING);
+        if (listener != null) {
+            listener.onFinish(outcome, position, state);
+        }
+        event.report(pda, RunEvent.RECOGNIZER, position, position, position + epsilonSteps, stack.maxDepth(), outcome);
+        releaseStack();
+        return accepted;
+    }
+
+    private boolean halt(Outcome outcome) {
+        stuck = true;
+        if (listener != null) {
+            listener.onFinish(outcome, position, state);
+        }
+        event.report(pda, RunEvent.RECOGNIZER, -1, position, position + epsilonSteps, stack.maxDepth(), outcome);
+        releaseStack();
+        return false;
+    }
+
+    // a stack that may have spilled gives its cold storage back as soon as the run is over
+    private void releaseStack() {
+        if (memory != null) {
+            stack.clear();
+        }
+    }
+
+    /**
+     * Takes a transition, an epsilon move is taken together with the rest of its chain unless a
+     * listener wants to see every transition
+     * @return false if the epsilon moves never end
+     */
+    private boolean step(int id, int top) {
+        if (pda.transInput[id] == CompiledDPDA.NO_SYMBOL) {
+            int cell = state * pda.topSlots + top;
+            int next = pda.epsilon.next[cell];
+            if (next == EpsilonAnalysis.LOOP) {
+                return false;
+            } else if (next >= 0 && listener == null) {
+                stack.apply(pda.epsilon.pop[cell], pda.epsilon.push[cell]);
+                state = next;
+                epsilonSteps += pda.epsilon.steps[cell];
+                return true;
+            }
+            epsilonSteps++;
+        }
+        stack.apply(pda.transPop[id], pda.transPush[id]);
+        state = pda.transNext[id];
+        if (listener != null) {
+            listener.onStep(id, pda.transInput[id] != CompiledDPDA.NO_SYMBOL, stack.depth());
+        }
+        return true;
+    }
+
+    /**
+     * Lets the recognizer get stuck once the input left is too short to be accepted
+     * @param symbols number of symbols of the whole input, at most
+     */
+    void limitInput(long symbols) {
+        inputLimit = symbols;
+    }
+
+    /**
+     * Goes back to the start state with an empty stack so the recognizer can be reused
+     */
+    public void reset() {
+        if (scanner != null) {
+            scanner.clear();
+        }
+        stack.clear();
+        state = pda.startState;
+        position = 0;
+        stuck = false;
+        epsilonSteps = 0;
+        event = new RunEvent();
+        event.begin();
+    }
+
+    /**
+     * Gives up the run: the recognizer is stuck and with a {@link StackMemory} the cold storage of
+     * the stack is given back. It can be reused after reset().
+     */
+    @Override
+    public void close() {
+        stuck = true;
+        releaseStack();
+    }
+
+    public boolean isStuck() {
+        return stuck;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * @return number of symbols on the stack; with a {@link StackMemory} the stack is emptied once
+     * the run is over
+     */
+    public int getStackDepth() {
+        return stack.depth();
+    }
+
+    /**
+     * @return number of input symbols consumed
+     */
+    public long getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,71 @@
+package edu.njit.cs341;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for a run of a {@link CompiledDPDA} over an input, from the first symbol
+ * to acceptance or rejection. Runs shorter than the threshold are not recorded, so the event can
+ * stay enabled for batches of millions of short inputs; lower it in the recording settings to see
+ * every run. Nothing is recorded while no recording is running, apart from taking the start time.
+ */
+@Name("edu.njit.cs341.Run")
+@Label("DPDA Run")
+@Category("DPDA")
+@Description("Recognition of an input by a compiled DPDA")
+@StackTrace(false)
+@Threshold("1 ms")
+final class RunEvent extends Event {
+
+    static final String ACCEPTS = "accepts";
+    static final String RECOGNIZER = "recognizer";
+    static final String TRACE = "trace";
+
+    @Label("Path")
+    @Description("Entry point of the run: accepts, recognizer or trace")
+    String path;
+
+    @Label("Input Length")
+    @Description("Input symbols of the run, -1 if the run stopped before the end of a streamed input")
+    long inputLength;
+
+    @Label("Position")
+    @Description("Input symbols consumed")
+    long position;
+
+    @Label("Steps")
+    @Description("Transitions taken, including those of collapsed epsilon chains")
+    long steps;
+
+    @Label("Max Stack Depth")
+    long maxStackDepth;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("States")
+    int states;
+
+    /**
+     * Ends the event and commits it if the recording wants it
+     */
+    void report(CompiledDPDA pda, String path, long inputLength, long position, long steps,
+                long maxStackDepth, Outcome outcome) {
+        end();
+        if (shouldCommit()) {
+            this.path = path;
+            this.inputLength = inputLength;
+            this.position = position;
+            this.steps = steps;
+            this.maxStackDepth = maxStackDepth;
+            this.outcome = outcome.name();
+            this.states = pda.nStates;
+            commit();
+        }
+    }
+}
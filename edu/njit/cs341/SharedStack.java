@@ -0,0 +1,120 @@
+package edu.njit.cs341;
+
+import java.util.Arrays;
+
+/**
+ * Persistent stack of stack symbol ids. A stack is identified by the id of its top node and every
+ * node points to the node below it, so a snapshot of the stack is just an int and stacks that
+ * share a bottom part share its nodes. Nodes are hash-consed on (node below, symbol): pushing the
+ * same symbol onto the same stack twice yields the same node, hence two stacks built in the same
+ * SharedStack are equal if and only if their node ids are equal.
+ */
+final class SharedStack {
+
+    static final int EMPTY = -1;
+
+    private int[] below = new int[64];
+    private int[] symbols = new int[64];
+    private int[] depths = new int[64];
+    private int size = 0;
+
+    // open addressing table of node ids + 1, 0 marks a free slot
+    private int[] slots = new int[128];
+
+    /**
+     * @return number of nodes allocated so far
+     */
+    int size() {
+        return size;
+    }
+
+    int depth(int node) {
+        return (node == EMPTY ? 0 : depths[node]);
+    }
+
+    /**
+     * @return symbol on top of the stack or CompiledDPDA.NO_SYMBOL if the stack is empty
+     */
+    int top(int node) {
+        return (node == EMPTY ? CompiledDPDA.NO_SYMBOL : symbols[node]);
+    }
+
+    int pop(int node) {
+        return below[node];
+    }
+
+    int push(int node, int symbol) {
+        int mask = slots.length - 1;
+        int slot = hash(node, symbol) & mask;
+        for (;;) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                break;
+            }
+            if (below[id] == node && symbols[id] == symbol) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == below.length) {
+            below = Arrays.copyOf(below, 2 * size);
+            symbols = Arrays.copyOf(symbols, 2 * size);
+            depths = Arrays.copyOf(depths, 2 * size);
+        }
+        int id = size++;
+        below[id] = node;
+        symbols[id] = symbol;
+        depths[id] = depth(node) + 1;
+        slots[slot] = id + 1;
+        if (2 * size > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Pops the stack top matched by a transition (if any) and pushes its replacement
+     * @param node stack to act on
+     * @param pop symbol to pop or CompiledDPDA.NO_SYMBOL
+     * @param push replacement symbols, first symbol ends up on top of the stack
+     * @return resulting stack
+     */
+    int apply(int node, int pop, int[] push) {
+        if (pop != CompiledDPDA.NO_SYMBOL) {
+            node = below[node];
+        }
+        for (int l = push.length - 1; l >= 0; l--) {
+            node = push(node, push[l]);
+        }
+        return node;
+    }
+
+    /**
+     * @return symbols of the stack, top of stack first
+     */
+    int[] toArray(int node) {
+        int[] result = new int[depth(node)];
+        for (int k = 0; node != EMPTY; k++) {
+            result[k] = symbols[node];
+            node = below[node];
+        }
+        return result;
+    }
+
+    private void rehash() {
+        slots = new int[2 * slots.length];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(below[id], symbols[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int hash(int node, int symbol) {
+        int h = node * 0x9E3779B1 + symbol;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,156 @@
+package edu.njit.cs341;
+
+import java.lang.ref.Cleaner;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory policy for the stacks of recognizers that may nest extremely deep. Each stack keeps its
+ * top heapSymbols symbols in an int array on the heap; when that is full, the lower half is moved
+ * to cold storage and comes back once the stack has been popped down to it. Cold storage is
+ * direct (off-heap) buffers as long as the off-heap budget shared by all stacks of the policy
+ * lasts, and after that regions of a temporary memory-mapped file, so the depth of a stack is
+ * limited by disk rather than heap. Cold symbols take one, two or four bytes depending on the
+ * number of stack symbols of the automaton.
+ *
+ * A policy can be shared by any number of recognizers and threads; it counts the cold storage in
+ * use and its peaks. Direct buffers count against -XX:MaxDirectMemorySize. A stack gives its cold
+ * storage back when it is reset, its run ends or its recognizer is closed, and at the latest when
+ * the recognizer is garbage collected. The spill file is deleted when it is closed or the process
+ * exits.
+ */
+public final class StackMemory {
+
+    public static final int DEFAULT_HEAP_SYMBOLS = 1 << 20;
+    public static final long DEFAULT_OFF_HEAP_BYTES = 256L << 20;
+
+    private final int heapSymbols;
+    private final long offHeapLimit;
+    private final Path directory;
+
+    private final AtomicLong offHeapBytes = new AtomicLong();
+    private final AtomicLong fileBytes = new AtomicLong();
+    private final AtomicLong peakOffHeapBytes = new AtomicLong();
+    private final AtomicLong peakFileBytes = new AtomicLong();
+    private final AtomicLong spills = new AtomicLong();
+    private final AtomicLong refills = new AtomicLong();
+
+    // gives the cold storage of recognizers dropped in the middle of a run back
+    static final Cleaner CLEANER = Cleaner.create();
+
+    public StackMemory() {
+        this(DEFAULT_HEAP_SYMBOLS, DEFAULT_OFF_HEAP_BYTES);
+    }
+
+    public StackMemory(int heapSymbols, long offHeapBytes) {
+        this(heapSymbols, offHeapBytes, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param heapSymbols number of symbols each stack keeps on the heap, at least 2
+     * @param offHeapBytes bytes of direct buffers all stacks together may use before spilling to files
+     * @param directory directory of the spill files
+     */
+    public StackMemory(int heapSymbols, long offHeapBytes, Path directory) {
+        if (heapSymbols < 2) {
+            throw new IllegalArgumentException("A stack must keep at least 2 symbols on the heap: " + heapSymbols);
+        }
+        if (offHeapBytes < 0) {
+            throw new IllegalArgumentException("Negative off-heap budget: " + offHeapBytes);
+        }
+        this.heapSymbols = heapSymbols;
+        this.offHeapLimit = offHeapBytes;
+        this.directory = directory;
+    }
+
+    public int getHeapSymbols() {
+        return heapSymbols;
+    }
+
+    public long getOffHeapLimit() {
+        return offHeapLimit;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Takes bytes of the off-heap budget
+     * @return false if the budget does not have them left
+     */
+    boolean reserveOffHeap(long bytes) {
+        for (;;) {
+            long used = offHeapBytes.get();
+            if (used + bytes > offHeapLimit) {
+                return false;
+            }
+            if (offHeapBytes.compareAndSet(used, used + bytes)) {
+                peakOffHeapBytes.accumulateAndGet(used + bytes, Math::max);
+                return true;
+            }
+        }
+    }
+
+    void releaseOffHeap(long bytes) {
+        offHeapBytes.addAndGet(-bytes);
+    }
+
+    void addFileBytes(long bytes) {
+        long used = fileBytes.addAndGet(bytes);
+        peakFileBytes.accumulateAndGet(used, Math::max);
+    }
+
+    void countSpill() {
+        spills.incrementAndGet();
+    }
+
+    void countRefill() {
+        refills.incrementAndGet();
+    }
+
+    /**
+     * @return bytes of direct buffers in use by the stacks
+     */
+    public long getOffHeapBytes() {
+        return offHeapBytes.get();
+    }
+
+    /**
+     * @return bytes of spill files mapped by the stacks
+     */
+    public long getFileBytes() {
+        return fileBytes.get();
+    }
+
+    public long getPeakOffHeapBytes() {
+        return peakOffHeapBytes.get();
+    }
+
+    public long getPeakFileBytes() {
+        return peakFileBytes.get();
+    }
+
+    /**
+     * @return number of times a stack moved symbols from the heap to cold storage
+     */
+    public long getSpills() {
+        return spills.get();
+    }
+
+    /**
+     * @return number of times a stack moved symbols from cold storage back to the heap
+     */
+    public long getRefills() {
+        return refills.get();
+    }
+
+    @Override
+    public String toString() {
+        return "heapSymbols=" + heapSymbols + ",offHeapLimit=" + offHeapLimit
+                + ",offHeapBytes=" + offHeapBytes.get() + ",peakOffHeapBytes=" + peakOffHeapBytes.get()
+                + ",fileBytes=" + fileBytes.get() + ",peakFileBytes=" + peakFileBytes.get()
+                + ",spills=" + spills.get() + ",refills=" + refills.get();
+    }
+}
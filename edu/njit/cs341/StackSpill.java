@@ -0,0 +1,153 @@
+package edu.njit.cs341;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cold bottom part of a {@link SymbolStack}, bottom first, in fixed size chunks that are either
+ * direct buffers or mapped regions of a temporary file. Chunk k covers bytes [k*CHUNK, (k+1)*CHUNK)
+ * of the cold part; a mapped chunk lies at the same offset of the file, which is sparse where the
+ * chunks are direct.
+ */
+final class StackSpill {
+
+    static final int CHUNK = 1 << 22;
+
+    private final StackMemory memory;
+    private final int width;          // bytes per symbol: 1, 2 or 4
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final List<Boolean> mapped = new ArrayList<>();
+    private FileChannel file = null;
+    private long size = 0;            // number of symbols
+
+    /**
+     * @param nSymbols number of stack symbols of the automaton
+     */
+    StackSpill(StackMemory memory, int nSymbols) {
+        this.memory = memory;
+        this.width = (nSymbols <= 1 << 8 ? 1 : nSymbols <= 1 << 16 ? 2 : 4);
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Puts symbols[0..n) on top of the cold part, symbols[0] lowest
+     */
+    void push(int[] symbols, int n) {
+        memory.countSpill();
+        for (int k = 0; k < n; k++) {
+            long offset = (size + k) * width;
+            int chunk = (int) (offset / CHUNK);
+            if (chunk == chunks.size()) {
+                addChunk();
+            }
+            put(chunks.get(chunk), (int) (offset % CHUNK), symbols[k]);
+        }
+        size += n;
+    }
+
+    /**
+     * Takes the top n symbols off the cold part into symbols[0..n), symbols[0] lowest
+     */
+    void pop(int[] symbols, int n) {
+        memory.countRefill();
+        size -= n;
+        for (int k = 0; k < n; k++) {
+            symbols[k] = get(size + k);
+        }
+        // keep one chunk above the top so that a stack moving around a chunk boundary does not
+        // allocate and free the same chunk over and over
+        int needed = (int) ((size * width + CHUNK - 1) / CHUNK) + 1;
+        while (chunks.size() > needed) {
+            removeChunk();
+        }
+    }
+
+    /**
+     * @param i position counted from the bottom of the stack, below size()
+     */
+    int get(long i) {
+        long offset = i * width;
+        ByteBuffer chunk = chunks.get((int) (offset / CHUNK));
+        int at = (int) (offset % CHUNK);
+        switch (width) {
+            case 1:
+                return chunk.get(at) & 0xFF;
+            case 2:
+                return chunk.getShort(at) & 0xFFFF;
+            default:
+                return chunk.getInt(at);
+        }
+    }
+
+    private void put(ByteBuffer chunk, int at, int symbol) {
+        switch (width) {
+            case 1:
+                chunk.put(at, (byte) symbol);
+                break;
+            case 2:
+                chunk.putShort(at, (short) symbol);
+                break;
+            default:
+                chunk.putInt(at, symbol);
+        }
+    }
+
+    private void addChunk() {
+        if (memory.reserveOffHeap(CHUNK)) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK));
+            mapped.add(false);
+            return;
+        }
+        try {
+            if (file == null) {
+                Path path = Files.createTempFile(memory.getDirectory(), "dpda-stack", ".spill");
+                // on unix the file is unlinked right away and only lives as long as the channel
+                file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            chunks.add(file.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * CHUNK, CHUNK));
+            mapped.add(true);
+            memory.addFileBytes(CHUNK);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill the stack to " + memory.getDirectory(), e);
+        }
+    }
+
+    private void removeChunk() {
+        int last = chunks.size() - 1;
+        chunks.remove(last);
+        if (mapped.remove(last)) {
+            memory.addFileBytes(-CHUNK);
+        } else {
+            memory.releaseOffHeap(CHUNK);
+        }
+    }
+
+    /**
+     * Gives all chunks back and closes the spill file
+     */
+    void release() {
+        while (!chunks.isEmpty()) {
+            removeChunk();
+        }
+        size = 0;
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                // nothing left to do with it
+            }
+            file = null;
+        }
+    }
+}
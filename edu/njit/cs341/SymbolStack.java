@@ -0,0 +1,162 @@
+package edu.njit.cs341;
+
+import java.util.Arrays;
+
+/**
+ * Growable stack of stack symbol ids backed by a primitive int array. Unlike java.util.Stack it
+ * is not synchronized and does not box its elements.
+ *
+ * With a {@link StackMemory} the array holds at most its heapSymbols top symbols: when it is full
+ * the lower half is spilled to a {@link StackSpill}, and when it has been popped empty the top
+ * half of that many symbols is loaded back, so the array is never empty while symbols are spilled.
+ * The depth is limited to Integer.MAX_VALUE symbols.
+ */
+final class SymbolStack {
+
+    private int[] elements;
+    private int depth = 0;            // symbols in elements, the ones on top of the spilled ones
+
+    private final StackMemory memory; // null if nothing is ever spilled
+    private final int nSymbols;
+    private StackSpill spill = null;
+    private int spilled = 0;
+    private int maxTop = 0;           // largest depth so far less the symbols spilled now
+
+    SymbolStack() {
+        this(16);
+    }
+
+    SymbolStack(int capacity) {
+        elements = new int[Math.max(capacity, 1)];
+        memory = null;
+        nSymbols = 0;
+    }
+
+    /**
+     * @param memory policy for spilling the bottom of the stack
+     * @param nSymbols number of stack symbols of the automaton
+     */
+    SymbolStack(StackMemory memory, int nSymbols) {
+        elements = new int[Math.min(16, memory.getHeapSymbols())];
+        this.memory = memory;
+        this.nSymbols = nSymbols;
+    }
+
+    int depth() {
+        return spilled + depth;
+    }
+
+    /**
+     * @return largest depth the stack has had since it was created or cleared
+     */
+    int maxDepth() {
+        return maxTop + spilled;
+    }
+
+    boolean isEmpty() {
+        return depth == 0;
+    }
+
+    /**
+     * @return symbol on top of the stack or CompiledDPDA.NO_SYMBOL if the stack is empty
+     */
+    int top() {
+        return (depth == 0 ? CompiledDPDA.NO_SYMBOL : elements[depth - 1]);
+    }
+
+    /**
+     * @param i position counted from the bottom of the stack
+     * @return symbol at that position
+     */
+    int get(int i) {
+        return (i < spilled ? spill.get(i) : elements[i - spilled]);
+    }
+
+    void push(int symbol) {
+        if (depth == elements.length) {
+            grow(1);
+        }
+        elements[depth++] = symbol;
+        if (depth > maxTop) {
+            maxTop = depth;
+        }
+    }
+
+    int pop() {
+        int symbol = elements[--depth];
+        if (depth == 0 && spilled > 0) {
+            refill();
+        }
+        return symbol;
+    }
+
+    /**
+     * Pops the stack top matched by a transition (if any) and pushes its replacement
+     * @param pop symbol to pop or CompiledDPDA.NO_SYMBOL
+     * @param push replacement symbols, first symbol ends up on top of the stack
+     */
+    void apply(int pop, int[] push) {
+        if (pop != CompiledDPDA.NO_SYMBOL) {
+            depth--;
+        }
+        int n = push.length;
+        if (depth + n > elements.length) {
+            grow(n);
+        }
+        for (int l = n - 1; l >= 0; l--) {
+            elements[depth++] = push[l];
+        }
+        if (depth > maxTop) {
+            maxTop = depth;
+        }
+        if (depth == 0 && spilled > 0) {
+            refill();
+        }
+    }
+
+    // makes room for n more symbols, by spilling the lower half once the array is at its limit
+    private void grow(int n) {
+        int limit = (memory == null ? Integer.MAX_VALUE : memory.getHeapSymbols());
+        if (depth + n > limit && depth > 0) {
+            if (spill == null) {
+                spill = new StackSpill(memory, nSymbols);
+            }
+            int keep = Math.min(limit / 2, Math.max(0, limit - n));
+            int moved = depth - keep;
+            spill.push(elements, moved);
+            System.arraycopy(elements, moved, elements, 0, keep);
+            depth = keep;
+            spilled += moved;
+            maxTop -= moved;
+        }
+        if (depth + n > elements.length) {
+            long capacity = Math.max(2L * elements.length, depth + n);
+            elements = Arrays.copyOf(elements, (int) Math.min(capacity, Math.max(limit, depth + n)));
+        }
+    }
+
+    // loads the top of the spilled symbols back into the empty array
+    private void refill() {
+        int n = Math.min(spilled, Math.max(1, memory.getHeapSymbols() / 2));
+        if (n > elements.length) {
+            elements = new int[n];
+        }
+        spill.pop(elements, n);
+        depth = n;
+        spilled -= n;
+        maxTop += n;
+    }
+
+    /**
+     * Empties the stack, spilled symbols are given back to the memory policy
+     */
+    void clear() {
+        depth = 0;
+        maxTop = 0;
+        if (spill != null) {
+            spill.release();
+            spill = null;
+            spilled = 0;
+        }
+    }
+}
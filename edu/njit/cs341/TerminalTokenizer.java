@@ -0,0 +1,290 @@
+package edu.njit.cs341;
+
+import java.util.Arrays;
+
+/**
+ * Splits text into the terminals of a {@link CompiledDPDA}, so that alphabets of keywords and
+ * other multi-character tokens can be recognized straight from a string or a byte buffer. The
+ * terminals are laid out as a trie over the characters they use, flattened into a DFA table, and
+ * the input is matched by longest match: at every position the longest terminal that starts there
+ * is taken. A position where no terminal starts yields NO_SYMBOL for its character, unless the
+ * character is whitespace and whitespace is skipped.
+ *
+ * Bytes are read as the characters with the same (unsigned) value. A tokenizer is immutable and
+ * can be shared between threads; the recognizers keep the partial token of a stream in a
+ * {@link Scanner} of their own and nothing is allocated per token.
+ */
+public final class TerminalTokenizer {
+
+    static final int ROOT = 0;
+    static final int DEAD = -1;
+
+    private final int[] classOf;       // character class of every character used by a terminal, or -1
+    private final int nClasses;
+    private final int[] next;          // node * nClasses + class -> node, or DEAD
+    private final int[] accept;        // terminal id of the node, or NO_SYMBOL
+    private final boolean[] leaf;      // no longer terminal continues from the node
+    private final int maxLength;
+    private final boolean skipWhitespace;
+    private final boolean singleCharacter;
+    private final CompiledDPDA pda;
+
+    public TerminalTokenizer(CompiledDPDA pda) {
+        this(pda, false);
+    }
+
+    /**
+     * @param pda automaton whose terminals are matched
+     * @param skipWhitespace whether whitespace that does not start a terminal separates tokens
+     *                       instead of being an unknown symbol
+     */
+    public TerminalTokenizer(CompiledDPDA pda, boolean skipWhitespace) {
+        this.pda = pda;
+        this.skipWhitespace = skipWhitespace;
+        String[] terminals = pda.terminals;
+        int maxChar = -1;
+        int totalLength = 0;
+        int longest = 0;
+        boolean single = true;
+        for (String terminal : terminals) {
+            for (int k = 0; k < terminal.length(); k++) {
+                maxChar = Math.max(maxChar, terminal.charAt(k));
+            }
+            totalLength += terminal.length();
+            longest = Math.max(longest, terminal.length());
+            single &= terminal.length() == 1;
+        }
+        classOf = new int[maxChar + 1];
+        Arrays.fill(classOf, -1);
+        int classes = 0;
+        for (String terminal : terminals) {
+            for (int k = 0; k < terminal.length(); k++) {
+                if (classOf[terminal.charAt(k)] < 0) {
+                    classOf[terminal.charAt(k)] = classes++;
+                }
+            }
+        }
+        nClasses = Math.max(classes, 1);
+        maxLength = longest;
+        singleCharacter = single;
+
+        // every character of every terminal adds at most one node to the trie
+        int[] table = new int[(totalLength + 1) * nClasses];
+        Arrays.fill(table, DEAD);
+        int[] ids = new int[totalLength + 1];
+        Arrays.fill(ids, CompiledDPDA.NO_SYMBOL);
+        int nodes = 1;
+        for (int id = 0; id < terminals.length; id++) {
+            String terminal = terminals[id];
+            if (terminal.isEmpty()) {
+                continue;
+            }
+            int node = ROOT;
+            for (int k = 0; k < terminal.length(); k++) {
+                int cell = node * nClasses + classOf[terminal.charAt(k)];
+                if (table[cell] == DEAD) {
+                    table[cell] = nodes++;
+                }
+                node = table[cell];
+            }
+            ids[node] = id;
+        }
+        next = Arrays.copyOf(table, nodes * nClasses);
+        accept = Arrays.copyOf(ids, nodes);
+        leaf = new boolean[nodes];
+        for (int node = 0; node < nodes; node++) {
+            leaf[node] = true;
+            for (int c = 0; c < nClasses; c++) {
+                if (next[node * nClasses + c] != DEAD) {
+                    leaf[node] = false;
+                    break;
+                }
+            }
+        }
+    }
+
+    private int step(int node, char c) {
+        int cls = (c < classOf.length ? classOf[c] : -1);
+        return (cls < 0 ? DEAD : next[node * nClasses + cls]);
+    }
+
+    /**
+     * @return true if every terminal is a single character and no whitespace is skipped, so a
+     * token is just the symbol of its character
+     */
+    public boolean isSingleCharacter() {
+        return singleCharacter && !skipWhitespace;
+    }
+
+    public boolean isSkippingWhitespace() {
+        return skipWhitespace;
+    }
+
+    /**
+     * @return length of the longest terminal
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Splits the input into terminals
+     * @param input input text
+     * @param symbols receives the terminal ids, must have room for input.length() ids
+     * @return number of ids written
+     */
+    public int tokenize(CharSequence input, int[] symbols) {
+        int length = input.length();
+        if (isSingleCharacter()) {
+            for (int i = 0; i < length; i++) {
+                symbols[i] = pda.symbolOf(input.charAt(i));
+            }
+            return length;
+        }
+        int n = 0;
+        int i = 0;
+        while (i < length) {
+            int node = ROOT;
+            int id = CompiledDPDA.NO_SYMBOL;
+            int end = i;
+            for (int j = i; j < length; j++) {
+                node = step(node, input.charAt(j));
+                if (node == DEAD) {
+                    break;
+                }
+                if (accept[node] != CompiledDPDA.NO_SYMBOL) {
+                    id = accept[node];
+                    end = j + 1;
+                }
+            }
+            if (end > i) {
+                symbols[n++] = id;
+                i = end;
+            } else {
+                if (!skipWhitespace || !Character.isWhitespace(input.charAt(i))) {
+                    symbols[n++] = CompiledDPDA.NO_SYMBOL;
+                }
+                i++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return terminal ids of the input
+     */
+    public int[] tokenize(CharSequence input) {
+        int[] symbols = new int[input.length()];
+        int n = tokenize(input, symbols);
+        return (n == symbols.length ? symbols : Arrays.copyOf(symbols, n));
+    }
+
+    /**
+     * Receives the terminal ids a {@link Scanner} splits its stream into
+     */
+    interface Sink {
+        /**
+         * @param symbol terminal id, or NO_SYMBOL for a character no terminal starts with
+         * @return false if no more tokens are wanted, e.g. once the automaton is stuck
+         */
+        boolean feed(int symbol);
+    }
+
+    /**
+     * Longest match over a stream that arrives a character at a time. The characters of the token
+     * being matched are kept until it is known where the token ends; after taking the longest
+     * terminal, the characters read past it are matched again.
+     */
+    final class Scanner {
+        // characters not yet turned into tokens, buffer[0..scan) have been matched from the
+        // root to node and buffer[scan..end) are still to be matched
+        private final char[] buffer = new char[maxLength + 1];
+        private int end = 0;
+        private int scan = 0;
+        private int node = ROOT;
+        private int matchId = CompiledDPDA.NO_SYMBOL;
+        private int matchEnd = 0;
+
+        /**
+         * @return false if the sink is stuck
+         */
+        boolean feed(char c, Sink sink) {
+            buffer[end++] = c;
+            while (scan < end) {
+                int following = step(node, buffer[scan]);
+                if (following == DEAD) {
+                    if (!emit(sink)) {
+                        return false;
+                    }
+                    continue;
+                }
+                node = following;
+                scan++;
+                if (accept[node] != CompiledDPDA.NO_SYMBOL) {
+                    matchId = accept[node];
+                    matchEnd = scan;
+                    if (leaf[node] && !emit(sink)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Ends the stream, the characters left are turned into tokens
+         * @return false if the sink is stuck
+         */
+        boolean flush(Sink sink) {
+            while (end > 0) {
+                if (!emit(sink)) {
+                    return false;
+                }
+                while (scan < end) {
+                    int following = step(node, buffer[scan]);
+                    if (following == DEAD) {
+                        break;
+                    }
+                    node = following;
+                    scan++;
+                    if (accept[node] != CompiledDPDA.NO_SYMBOL) {
+                        matchId = accept[node];
+                        matchEnd = scan;
+                    }
+                }
+            }
+            return true;
+        }
+
+        // feeds the longest match found, or the first character if there is none, and restarts
+        // matching right after it
+        private boolean emit(Sink sink) {
+            boolean running = true;
+            int consumed;
+            if (matchEnd > 0) {
+                running = sink.feed(matchId);
+                consumed = matchEnd;
+            } else {
+                if (!skipWhitespace || !Character.isWhitespace(buffer[0])) {
+                    running = sink.feed(CompiledDPDA.NO_SYMBOL);
+                }
+                consumed = 1;
+            }
+            System.arraycopy(buffer, consumed, buffer, 0, end - consumed);
+            end -= consumed;
+            scan = 0;
+            node = ROOT;
+            matchId = CompiledDPDA.NO_SYMBOL;
+            matchEnd = 0;
+            return running;
+        }
+
+        void clear() {
+            end = 0;
+            scan = 0;
+            node = ROOT;
+            matchId = CompiledDPDA.NO_SYMBOL;
+            matchEnd = 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package edu.njit.cs341;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchModeTest {
+
+    /** (ab)^n c^n, with a terminal of two characters */
+    private static final String AB_C = "states: 4\n"
+            + "accept: 0, 3\n"
+            + "terminals: ab, c\n"
+            + "stack: X, $\n"
+            + "transition: 0, ab, -, 1, X $\n"
+            + "transition: 1, ab, X, 1, X X\n"
+            + "transition: 1, c, X, 2, -\n"
+            + "transition: 2, c, X, 2, -\n"
+            + "transition: 2, -, $, 3, -\n";
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void writesResultsInInputOrder() throws Exception {
+        CompiledDPDA pda = Definitions.compile(Definitions.ANBN);
+        assertEquals("1\n0\n1\n0\n1\n", run(pda, false, "ab\naab\r\naabb\nba\n\n"));
+    }
+
+    @Test
+    void tracesLikeTheInteractiveDialog() throws Exception {
+        DPDA anbn = DPDADefinition.parse(Definitions.ANBN);
+        String[] lines = {"", "ab", "aabb", "aab", "abb", "ba", "axb", "aaaabbbb"};
+        assertEquals(dialog(anbn, lines), run(anbn.compile(), true, String.join("\n", lines) + "\n"));
+        DPDA palindrome = DPDADefinition.parse(Definitions.PALINDROME);
+        String[] more = {"c", "abcba", "abcab", "abc", "ab?ba"};
+        assertEquals(dialog(palindrome, more), run(palindrome.compile(), true, String.join("\n", more) + "\n"));
+    }
+
+    @Test
+    void tracesMultiCharacterTerminalsByTheSameRule() throws Exception {
+        DPDA pda = DPDADefinition.parse(AB_C);
+        // a stuck run shows only the token it got stuck on, an unknown character as itself
+        assertEquals("Accept string abxcc?false\n"
+                        + "(q0;abxcc;eps)\n"
+                        + "(q1;x;X$)\n",
+                run(pda.compile(), true, "abxcc\n"));
+        List<TerminalToken> tokens = new ArrayList<>();
+        for (String token : new String[] {"ab", "ab", "c", "c"}) {
+            tokens.add(new TerminalToken(token));
+        }
+        assertEquals(dialog(pda, "ababcc", tokens), run(pda.compile(), true, "ababcc\n"));
+    }
+
+    // what DPDA.simulateDPDA() prints for the lines
+    private static String dialog(DPDA pda, String... lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(dialog(pda, line, DPDA.toTerminalTokens(line.toCharArray())));
+        }
+        return text.toString();
+    }
+
+    private static String dialog(DPDA pda, String line, List<TerminalToken> tokens) {
+        StringBuilder text = new StringBuilder();
+        text.append("Accept string ").append(line).append('?').append(pda.accepts(tokens)).append('\n');
+        for (Object configuration : pda.process(tokens)) {
+            text.append(configuration).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String run(CompiledDPDA pda, boolean trace, String input) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BatchMode(pda, pool, trace).run(
+                Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.ISO_8859_1))),
+                Channels.newChannel(out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
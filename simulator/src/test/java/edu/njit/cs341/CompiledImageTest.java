@@ -0,0 +1,51 @@
+package edu.njit.cs341;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledImageTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadsWhatWasWritten() throws Exception {
+        CompiledDPDA pda = Definitions.compile(Definitions.ANBN);
+        Path file = dir.resolve("anbn.img");
+        pda.writeImage(file);
+        CompiledDPDA loaded = CompiledDPDA.readImage(file);
+        assertArrayEquals(pda.table, loaded.table);
+        assertArrayEquals(pda.feasibility.need, loaded.feasibility.need);
+        for (int n = 0; n < 8; n++) {
+            for (int m = 0; m < 8; m++) {
+                String input = "a".repeat(n) + "b".repeat(m);
+                assertEquals(pda.accepts(input), loaded.accepts(input), input);
+            }
+        }
+    }
+
+    @Test
+    void rejectsAStoredFeasibilityAnalysisThatDoesNotMatch() throws Exception {
+        CompiledDPDA pda = Definitions.compile(Definitions.ANBN);
+        Path file = dir.resolve("anbn.img");
+        pda.writeImage(file);
+        // the analysis is stored last; make the start state with an empty stack need more input
+        // than it does, which would reject the empty input without a run
+        int cell = pda.startState * pda.topSlots + pda.topSlots - 1;
+        ByteBuffer image = ByteBuffer.wrap(Files.readAllBytes(file));
+        int offset = image.capacity() - 4 * (pda.nStates * pda.topSlots - cell);
+        assertEquals(0, image.getInt(offset));
+        image.putInt(offset, 1);
+        Files.write(file, image.array());
+        assertThrows(IOException.class, () -> CompiledDPDA.readImage(file));
+    }
+}
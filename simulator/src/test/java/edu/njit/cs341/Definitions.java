@@ -0,0 +1,122 @@
+package edu.njit.cs341;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Automata the tests share, in the text format of {@link DPDADefinition}
+ */
+final class Definitions {
+
+    /** a^n b^n, n >= 0 */
+    static final String ANBN = "states: 4\n"
+            + "start: 0\n"
+            + "accept: 0, 3\n"
+            + "terminals: a, b\n"
+            + "stack: A, $\n"
+            + "transition: 0, a, -, 1, A $\n"
+            + "transition: 1, a, A, 1, A A\n"
+            + "transition: 1, b, A, 2, -\n"
+            + "transition: 2, b, A, 2, -\n"
+            + "transition: 2, -, $, 3, -\n";
+
+    /** w c w^R, w over a and b */
+    static final String PALINDROME = "states: 4\n"
+            + "accept: 3\n"
+            + "terminals: a, b, c\n"
+            + "stack: A, B, $\n"
+            + "transition: 0, -, -, 1, $\n"
+            + "transition: 1, a, -, 1, A\n"
+            + "transition: 1, b, -, 1, B\n"
+            + "transition: 1, c, -, 2, -\n"
+            + "transition: 2, a, A, 2, -\n"
+            + "transition: 2, b, B, 2, -\n"
+            + "transition: 2, -, $, 3, -\n";
+
+    /** balanced brackets, checked by epsilon moves after every closing one */
+    static final String BRACKETS = "states: 4\n"
+            + "accept: 3\n"
+            + "terminals: [, ]\n"
+            + "stack: X, $\n"
+            + "transition: 0, -, -, 3, $\n"
+            + "transition: 3, [, $, 1, X $\n"
+            + "transition: 1, [, X, 1, X X\n"
+            + "transition: 1, ], X, 2, -\n"
+            + "transition: 2, -, X, 1, X\n"
+            + "transition: 2, -, $, 3, $\n";
+
+    /** a*, with a state no input gets out of once a b is read */
+    static final String A_STAR = "states: 2\n"
+            + "accept: 0\n"
+            + "terminals: a, b\n"
+            + "stack: A\n"
+            + "transition: 0, a, -, 0, -\n"
+            + "transition: 0, b, -, 1, -\n"
+            + "transition: 1, a, -, 1, -\n"
+            + "transition: 1, b, -, 1, -\n";
+
+    private Definitions() {
+    }
+
+    /**
+     * @return a^k b^k for the one k, counted by the states rather than by the stack
+     */
+    static String exactly(int k) {
+        StringBuilder definition = new StringBuilder("states: " + (2 * k + 1) + "\n"
+                + "accept: " + 2 * k + "\n"
+                + "terminals: a, b\n"
+                + "stack: A\n");
+        for (int state = 0; state < k; state++) {
+            definition.append("transition: ").append(state).append(", a, -, ").append(state + 1).append(", A\n");
+        }
+        for (int state = k; state < 2 * k; state++) {
+            definition.append("transition: ").append(state).append(", b, A, ").append(state + 1).append(", -\n");
+        }
+        return definition.toString();
+    }
+
+    static CompiledDPDA compile(String definition) throws Exception {
+        return DPDADefinition.parse(definition).compile();
+    }
+
+    /**
+     * @return a string of up to maxLength characters of the alphabet, a few of them run together
+     * so that inputs of the language come up as well
+     */
+    static String randomInput(Random random, String alphabet, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder input = new StringBuilder(length);
+        while (input.length() < length) {
+            char c = alphabet.charAt(random.nextInt(alphabet.length()));
+            int run = 1 + random.nextInt(Math.max(1, length / 4));
+            for (int k = 0; k < run && input.length() < length; k++) {
+                input.append(c);
+            }
+        }
+        return input.toString();
+    }
+
+    /**
+     * @return the inputs member gives for 0 to 12
+     */
+    static List<String> members(IntFunction<String> member) {
+        List<String> members = new ArrayList<>();
+        for (int n = 0; n <= 12; n++) {
+            members.add(member.apply(n));
+        }
+        return members;
+    }
+
+    /**
+     * @return terminal ids of the characters of the input
+     */
+    static int[] symbols(CompiledDPDA pda, String input) {
+        int[] symbols = new int[input.length()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = pda.symbolOf(input.charAt(i));
+        }
+        return symbols;
+    }
+}
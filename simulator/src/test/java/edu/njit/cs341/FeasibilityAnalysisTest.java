@@ -0,0 +1,168 @@
+package edu.njit.cs341;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static edu.njit.cs341.Definitions.compile;
+import static edu.njit.cs341.Definitions.members;
+import static edu.njit.cs341.Definitions.symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeasibilityAnalysisTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Remembers how a run with a listener ended
+     */
+    private static final class Finish implements ExecutionListener {
+        Outcome outcome;
+        long position;
+
+        @Override
+        public void onStep(int transition, boolean consumesInput, int stackDepth) {
+        }
+
+        @Override
+        public void onFinish(Outcome outcome, long position, int state) {
+            this.outcome = outcome;
+            this.position = position;
+        }
+    }
+
+    @Test
+    void acceptsTheSameWithAndWithoutAListener() throws Exception {
+        Random random = new Random(23);
+        check(compile(Definitions.ANBN), "ab", members(n -> "a".repeat(n) + "b".repeat(n)), random);
+        check(compile(Definitions.PALINDROME), "abc", members(n -> {
+            String w = Definitions.randomInput(random, "ab", n);
+            return w + "c" + new StringBuilder(w).reverse();
+        }), random);
+        check(compile(Definitions.BRACKETS), "[]", members(n -> "[".repeat(n) + "]".repeat(n) + "[]".repeat(n)), random);
+        check(compile(Definitions.A_STAR), "ab", members(n -> "a".repeat(n)), random);
+        check(compile(Definitions.exactly(3)), "ab", List.of("aaabbb"), random);
+    }
+
+    // the listener and the trace take every transition without the early reject
+    private static void check(CompiledDPDA pda, String alphabet, List<String> members, Random random) {
+        List<String> inputs = new ArrayList<>(members);
+        for (int k = 0; k < 3000; k++) {
+            inputs.add(Definitions.randomInput(random, alphabet, 24));
+        }
+        for (String input : inputs) {
+            int[] symbols = symbols(pda, input);
+            boolean expected = pda.accepts(symbols, new Finish());
+            assertEquals(expected, pda.trace(symbols).isAccepted(), input);
+            assertEquals(expected, pda.accepts(symbols), input);
+            Recognizer recognizer = pda.newRecognizer();
+            recognizer.limitInput(input.length());
+            assertEquals(expected, recognizer.feed(input) && recognizer.finish(), input);
+        }
+        for (String member : members) {
+            assertTrue(pda.accepts(member), member);
+        }
+    }
+
+
+    @Test
+    void needsExactlyTheInputLeftWhenTheStatesCount() throws Exception {
+        for (int n = 1; n <= 6; n++) {
+            CompiledDPDA pda = compile(Definitions.exactly(n));
+            int a = pda.stackSymbolId("A");
+            assertEquals(2 * n, pda.minInputToAccept(pda.getStartState(), CompiledDPDA.NO_SYMBOL));
+            // after a^n it takes b^n
+            assertEquals(n, pda.minInputToAccept(n, a));
+            for (int state = 1; state <= 2 * n; state++) {
+                assertEquals(2 * n - state, pda.minInputToAccept(state, a));
+            }
+            for (int state = n; state < 2 * n; state++) {
+                // nothing to pop
+                assertFalse(pda.canAccept(state, CompiledDPDA.NO_SYMBOL));
+            }
+        }
+    }
+
+    @Test
+    void boundsTheInputLeftOnAnbn() throws Exception {
+        CompiledDPDA pda = compile(Definitions.ANBN);
+        int a = pda.stackSymbolId("A");
+        int bottom = pda.stackSymbolId("$");
+        assertEquals(0, pda.minInputToAccept(0, CompiledDPDA.NO_SYMBOL));
+        assertEquals(1, pda.minInputToAccept(1, a));
+        assertEquals(1, pda.minInputToAccept(2, a));
+        assertEquals(0, pda.minInputToAccept(2, bottom));
+        assertEquals(-1, pda.minInputToAccept(1, bottom));
+        assertFalse(pda.canAccept(1, bottom));
+        // the bound holds in every configuration of an accepted run
+        for (int n = 0; n <= 20; n++) {
+            String input = "a".repeat(n) + "b".repeat(n);
+            ExecutionTrace trace = pda.trace(symbols(pda, input));
+            assertTrue(trace.isAccepted(), input);
+            for (int k = 0; k <= trace.steps(); k++) {
+                int[] stack = trace.stack(k);
+                int least = pda.minInputToAccept(trace.state(k), stack.length == 0 ? CompiledDPDA.NO_SYMBOL : stack[0]);
+                assertTrue(least >= 0 && least <= input.length() - trace.inputPosition(k), input + " step " + k);
+            }
+        }
+    }
+
+    @Test
+    void rejectsEarlyOnlyWhileThereIsInputLeft() throws Exception {
+        CompiledDPDA aStar = compile(Definitions.A_STAR);
+        CompiledDPDA anbn = compile(Definitions.ANBN);
+        CompiledDPDA three = compile(Definitions.exactly(3));
+
+        Finish finish = new Finish();
+        assertFalse(aStar.accepts(symbols(aStar, "baa"), finish));
+        assertEquals(Outcome.NOT_ACCEPTING, finish.outcome);
+        assertEquals(3, finish.position);
+        Recognizer withListener = aStar.newRecognizer(finish);
+        withListener.limitInput(3);
+        assertFalse(withListener.feed("baa") && withListener.finish());
+        assertEquals(Outcome.NOT_ACCEPTING, finish.outcome);
+
+        Set<String> runs = new HashSet<>();
+        try (Recording recording = new Recording()) {
+            recording.enable("edu.njit.cs341.Run").withThreshold(Duration.ZERO);
+            recording.start();
+            assertFalse(aStar.accepts(symbols(aStar, "baa")));
+            assertFalse(aStar.accepts(symbols(aStar, "ab")));
+            assertFalse(anbn.accepts(symbols(anbn, "aab")));
+            assertFalse(anbn.accepts(symbols(anbn, "abbb")));
+            assertFalse(three.accepts(symbols(three, "aaaaa")));
+            Recognizer recognizer = aStar.newRecognizer();
+            recognizer.limitInput(3);
+            assertFalse(recognizer.feed("baa"));
+            recording.stop();
+            Path file = dir.resolve("runs.jfr");
+            recording.dump(file);
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("edu.njit.cs341.Run")) {
+                    runs.add(event.getString("path") + " " + event.getLong("inputLength") + " "
+                            + event.getLong("position") + " " + event.getString("outcome"));
+                }
+            }
+        }
+        assertEquals(Set.of(
+                "accepts 3 1 INFEASIBLE",
+                "accepts 2 2 NOT_ACCEPTING",
+                "accepts 3 3 NOT_ACCEPTING",
+                "accepts 4 2 STUCK",
+                "accepts 5 0 INFEASIBLE",
+                "recognizer -1 1 INFEASIBLE"), runs);
+    }
+}
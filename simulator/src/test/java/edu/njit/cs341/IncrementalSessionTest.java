@@ -0,0 +1,86 @@
+package edu.njit.cs341;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static edu.njit.cs341.Definitions.compile;
+import static edu.njit.cs341.Definitions.symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalSessionTest {
+
+    private static final String[] BRACKET_EDITS = {"", "[", "]", "[]", "][", "[[]]", "[][]"};
+
+    @Test
+    void matchesAFreshRunAfterRandomEdits() throws Exception {
+        check(compile(Definitions.BRACKETS), "[[]][]".repeat(40), "[]", BRACKET_EDITS, 1);
+        check(compile(Definitions.BRACKETS), "[[]][]".repeat(40), "[]", BRACKET_EDITS, 7);
+        check(compile(Definitions.BRACKETS), "[".repeat(100) + "]".repeat(100), "[]", BRACKET_EDITS, 16);
+        check(compile(Definitions.ANBN), "a".repeat(150) + "b".repeat(150), "ab",
+                new String[] {"", "a", "b", "ab", "ba", "aabb"}, 5);
+        check(compile(Definitions.PALINDROME), "ab".repeat(50) + "c" + "ba".repeat(50), "abc",
+                new String[] {"", "a", "b", "c", "aa", "bb"}, 3);
+    }
+
+    private static void check(CompiledDPDA pda, String text, String alphabet, String[] edits, int interval) {
+        Random random = new Random(18 + interval);
+        StringBuilder document = new StringBuilder(text);
+        IncrementalSession session = new IncrementalSession(pda, symbols(pda, text), interval);
+        assertEquals(pda.accepts(text), session.isAccepted());
+        for (int k = 0; k < 2000; k++) {
+            int length = document.length();
+            int from;
+            int to;
+            switch (k % 10) {
+                case 0:
+                    // at the start
+                    from = 0;
+                    to = random.nextInt(Math.min(length, 4) + 1);
+                    break;
+                case 1:
+                    // at the end
+                    to = length;
+                    from = length - random.nextInt(Math.min(length, 4) + 1);
+                    break;
+                default:
+                    from = random.nextInt(length + 1);
+                    to = from + random.nextInt(Math.min(length - from, 6) + 1);
+                    break;
+            }
+            String replacement = (k % 7 == 0 ? Definitions.randomInput(random, alphabet, 8)
+                    : edits[random.nextInt(edits.length)]);
+            document.replace(from, to, replacement);
+            boolean expected = pda.accepts(document.toString());
+            assertEquals(expected, session.replace(from, to, replacement), "edit " + k + ": " + document);
+            assertEquals(expected, session.isAccepted());
+            assertEquals(document.length(), session.length());
+            if (document.length() > 3 * text.length() || k % 500 == 499) {
+                // delete everything and start over
+                document.setLength(0);
+                assertEquals(pda.accepts(""), session.delete(0, session.length()));
+                assertEquals(0, session.length());
+                document.append(text);
+                assertEquals(pda.accepts(text), session.insert(0, text));
+            }
+        }
+    }
+
+    @Test
+    void runsOnlyNearALocalEdit() throws Exception {
+        CompiledDPDA pda = compile(Definitions.BRACKETS);
+        String text = "[[]][]".repeat(2000);
+        IncrementalSession session = new IncrementalSession(pda, symbols(pda, text), 64);
+        assertTrue(session.isAccepted());
+        int middle = text.length() / 2;
+        // a balanced insertion leaves the configuration after it as it was
+        assertTrue(session.insert(middle, "[[]]"));
+        assertTrue(session.getLastSymbolsRun() <= 3 * 64, "ran " + session.getLastSymbolsRun());
+        assertTrue(session.delete(middle, middle + 4));
+        assertTrue(session.getLastSymbolsRun() <= 3 * 64, "ran " + session.getLastSymbolsRun());
+        // an unbalanced one changes the stack for the rest of the document
+        assertEquals(pda.accepts(text.substring(0, middle) + "[" + text.substring(middle)), session.insert(middle, "["));
+        assertTrue(session.getLastSymbolsRun() >= text.length() - middle - 64, "ran " + session.getLastSymbolsRun());
+    }
+}
@@ -0,0 +1,141 @@
+package edu.njit.cs341;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static edu.njit.cs341.Definitions.compile;
+import static edu.njit.cs341.Definitions.members;
+import static edu.njit.cs341.Definitions.symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OptimizerTest {
+
+    /** a^n b^n with copies of states 1, 2 and 3 taken on odd counts, and two states never reached */
+    private static final String ANBN_COPIES = "states: 9\n"
+            + "accept: 0, 3, 6\n"
+            + "terminals: a, b\n"
+            + "stack: A, $, Z\n"
+            + "transition: 0, a, -, 1, A $\n"
+            + "transition: 1, a, A, 4, A A\n"
+            + "transition: 4, a, A, 1, A A\n"
+            + "transition: 1, b, A, 2, -\n"
+            + "transition: 4, b, A, 5, -\n"
+            + "transition: 2, b, A, 5, -\n"
+            + "transition: 5, b, A, 2, -\n"
+            + "transition: 2, -, $, 3, -\n"
+            + "transition: 5, -, $, 6, -\n"
+            + "transition: 7, a, -, 8, Z\n"
+            + "transition: 8, b, Z, 7, -\n";
+
+    /** a* where a b leads into a cycle of states, pushing all the way, none of which accepts */
+    private static final String A_STAR_DEAD = "states: 5\n"
+            + "accept: 0\n"
+            + "terminals: a, b\n"
+            + "stack: A\n"
+            + "transition: 0, a, -, 0, -\n"
+            + "transition: 0, b, -, 1, A\n"
+            + "transition: 1, a, -, 2, A\n"
+            + "transition: 1, b, -, 3, -\n"
+            + "transition: 2, -, A, 3, -\n"
+            + "transition: 3, a, -, 1, A\n"
+            + "transition: 3, b, -, 2, A\n"
+            + "transition: 4, a, -, 0, -\n";
+
+    /** w c w^R, where the first symbol of w picks one of two identical copies of the automaton */
+    private static final String PALINDROME_COPIES = "states: 7\n"
+            + "accept: 3, 6\n"
+            + "terminals: a, b, c\n"
+            + "stack: A, B, $\n"
+            + "transition: 0, a, -, 1, A $\n"
+            + "transition: 0, b, -, 4, B $\n"
+            + "transition: 0, c, -, 2, $\n"
+            + "transition: 1, a, -, 1, A\n"
+            + "transition: 1, b, -, 1, B\n"
+            + "transition: 1, c, -, 2, -\n"
+            + "transition: 4, a, -, 4, A\n"
+            + "transition: 4, b, -, 4, B\n"
+            + "transition: 4, c, -, 5, -\n"
+            + "transition: 2, a, A, 2, -\n"
+            + "transition: 2, b, B, 2, -\n"
+            + "transition: 2, -, $, 3, -\n"
+            + "transition: 5, a, A, 5, -\n"
+            + "transition: 5, b, B, 5, -\n"
+            + "transition: 5, -, $, 6, -\n";
+
+    /** an even number of a's, counted to four; every state reads a and pushes the same */
+    private static final String EVEN_AS = "states: 4\n"
+            + "accept: 0, 2\n"
+            + "terminals: a\n"
+            + "stack: A\n"
+            + "transition: 0, a, -, 1, A\n"
+            + "transition: 1, a, -, 2, A\n"
+            + "transition: 2, a, -, 3, A\n"
+            + "transition: 3, a, -, 0, A\n";
+
+    @Test
+    void mergesEquivalentStatesAndDropsUnreachableOnes() throws Exception {
+        CompiledDPDA pda = compile(ANBN_COPIES);
+        CompiledDPDA optimized = checkSameLanguage(pda, "ab", members(n -> "a".repeat(n) + "b".repeat(n)));
+        assertEquals(4, optimized.getNumStates());
+        // Z is only pushed by the states never reached
+        assertEquals(2, optimized.getNumStackSymbols());
+    }
+
+    @Test
+    void mergesDeadStatesIntoASink() throws Exception {
+        CompiledDPDA pda = compile(A_STAR_DEAD);
+        CompiledDPDA optimized = checkSameLanguage(pda, "ab", members(n -> "a".repeat(n)));
+        // the start state and the sink
+        assertEquals(2, optimized.getNumStates());
+    }
+
+    @Test
+    void mergesCopiesThatUseTheStack() throws Exception {
+        Random random = new Random(20);
+        CompiledDPDA pda = compile(PALINDROME_COPIES);
+        CompiledDPDA optimized = checkSameLanguage(pda, "abc", members(n -> {
+            String w = Definitions.randomInput(random, "ab", n);
+            return w + "c" + new StringBuilder(w).reverse();
+        }));
+        assertEquals(4, optimized.getNumStates());
+    }
+
+    @Test
+    void keepsAcceptingAndNonAcceptingStatesApart() throws Exception {
+        CompiledDPDA optimized = checkSameLanguage(compile(EVEN_AS), "a", members(n -> "aa".repeat(n)));
+        assertEquals(2, optimized.getNumStates());
+    }
+
+    @Test
+    void keepsTheLanguageOfAutomataWithNothingToDrop() throws Exception {
+        assertEquals(4, checkSameLanguage(compile(Definitions.ANBN), "ab",
+                members(n -> "a".repeat(n) + "b".repeat(n))).getNumStates());
+        assertEquals(4, checkSameLanguage(compile(Definitions.BRACKETS), "[]",
+                members(n -> "[".repeat(n) + "]".repeat(n))).getNumStates());
+        assertEquals(2, checkSameLanguage(compile(Definitions.A_STAR), "ab",
+                members(n -> "a".repeat(n))).getNumStates());
+    }
+
+    private static CompiledDPDA checkSameLanguage(CompiledDPDA pda, String alphabet, List<String> members) {
+        CompiledDPDA optimized = pda.optimize();
+        assertTrue(optimized.getNumStates() <= pda.getNumStates());
+        Random random = new Random(pda.getNumStates());
+        List<String> inputs = new ArrayList<>(members);
+        for (int k = 0; k < 5000; k++) {
+            inputs.add(Definitions.randomInput(random, alphabet, 24));
+        }
+        for (String input : inputs) {
+            boolean expected = pda.accepts(input);
+            assertEquals(expected, optimized.accepts(input), input);
+            assertEquals(expected, optimized.trace(symbols(optimized, input)).isAccepted(), input);
+        }
+        for (String member : members) {
+            assertTrue(optimized.accepts(member), member);
+        }
+        return optimized;
+    }
+}
@@ -0,0 +1,135 @@
+package edu.njit.cs341;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static edu.njit.cs341.Definitions.compile;
+import static edu.njit.cs341.Definitions.members;
+import static edu.njit.cs341.Definitions.symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelRecognizerTest {
+
+    private static final String LETTERS = "abcdefghijklmnopqrst";
+
+    private static ForkJoinPool pool;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return a word of 20 letters followed by '<', n dots and n '>'. A chunk starting at the '<'
+     * does not know the letter it pops and puts back, so it runs the rest of its dots once for
+     * every letter, which is more than the budget allows
+     */
+    private static String selector() {
+        StringBuilder definition = new StringBuilder("states: 4\n"
+                + "accept: 3\n"
+                + "terminals: <, ., >");
+        for (char letter : LETTERS.toCharArray()) {
+            definition.append(", ").append(letter);
+        }
+        definition.append("\nstack: $");
+        for (char letter : LETTERS.toCharArray()) {
+            definition.append(", ").append(Character.toUpperCase(letter));
+        }
+        definition.append("\ntransition: 1, ., -, 1, $\n"
+                + "transition: 1, >, $, 2, -\n"
+                + "transition: 2, >, $, 2, -\n");
+        for (char letter : LETTERS.toCharArray()) {
+            char symbol = Character.toUpperCase(letter);
+            definition.append("transition: 0, ").append(letter).append(", -, 0, ").append(symbol).append('\n');
+            definition.append("transition: 0, <, ").append(symbol).append(", 1, ").append(symbol).append('\n');
+            definition.append("transition: 2, -, ").append(symbol).append(", 3, -\n");
+        }
+        return definition.toString();
+    }
+
+    @Test
+    void stitchesStacksThatCrossManyChunks() throws Exception {
+        Random random = new Random(15);
+        check(compile(Definitions.ANBN), "ab", members(n -> "a".repeat(40 * n) + "b".repeat(40 * n)), random);
+        check(compile(Definitions.BRACKETS), "[]", members(n -> "[".repeat(n) + "[]".repeat(n) + "]".repeat(n)), random);
+        check(compile(Definitions.PALINDROME), "abc", members(n -> {
+            String w = Definitions.randomInput(random, "ab", 10 * n);
+            return w + "c" + new StringBuilder(w).reverse();
+        }), random);
+    }
+
+    @Test
+    void fallsBackWhenASummaryGrowsBeyondTheBudget() throws Exception {
+        Random random = new Random(16);
+        // the words are multiples of the chunk sizes long, so that chunks start at the <
+        check(compile(selector()), LETTERS + "<.>", members(n -> {
+            String w = randomWord(random, 64 * (n + 1));
+            return w + "<" + ".".repeat(100 + n) + ">".repeat(100 + n);
+        }), random);
+    }
+
+    @Test
+    void fallsBackOnSymbolsOutsideTheAlphabet() throws Exception {
+        Random random = new Random(17);
+        check(compile(Definitions.ANBN), "abx", members(n -> "a".repeat(n) + "b".repeat(n)), random);
+    }
+
+    @Test
+    void readsFilesInChunks() throws Exception {
+        CompiledDPDA pda = compile(Definitions.BRACKETS);
+        Random random = new Random(18);
+        List<String> inputs = new ArrayList<>(members(n -> "[".repeat(30 * n) + "]".repeat(30 * n)));
+        for (int k = 0; k < 200; k++) {
+            inputs.add(Definitions.randomInput(random, "[]", 300));
+        }
+        Path file = dir.resolve("input.txt");
+        for (int minChunk = 1; minChunk <= 16; minChunk *= 4) {
+            ParallelRecognizer parallel = new ParallelRecognizer(pda, pool, minChunk);
+            for (String input : inputs) {
+                Files.write(file, input.getBytes(StandardCharsets.ISO_8859_1));
+                assertEquals(pda.accepts(input), parallel.acceptsFile(file), input);
+            }
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int k = 0; k < length; k++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+
+    // tiny chunks put many chunk boundaries into short inputs
+    private static void check(CompiledDPDA pda, String alphabet, List<String> members, Random random) {
+        List<String> inputs = new ArrayList<>(members);
+        for (int k = 0; k < 1000; k++) {
+            inputs.add(Definitions.randomInput(random, alphabet, 200));
+        }
+        for (int minChunk = 1; minChunk <= 64; minChunk *= 4) {
+            ParallelRecognizer parallel = new ParallelRecognizer(pda, pool, minChunk);
+            for (String input : inputs) {
+                int[] symbols = symbols(pda, input);
+                assertEquals(pda.accepts(symbols), parallel.accepts(symbols), minChunk + " " + input);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package edu.njit.cs341;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixCacheTest {
+
+    @Test
+    void keepsAtMostMaxCheckpointsAfterALongInput() throws Exception {
+        // one input adds a chain of about 2500 checkpoints, only the leaf of which has no children
+        PrefixCache cache = new PrefixCache(Definitions.compile(Definitions.ANBN), 10, 100, 4);
+        assertTrue(cache.accepts("a".repeat(5000) + "b".repeat(5000)));
+        assertTrue(cache.getCheckpointCount() <= 10, cache.toString());
+    }
+
+    @Test
+    void staysWithinTheLimitAndCorrectWhileEvicting() throws Exception {
+        CompiledDPDA pda = Definitions.compile(Definitions.ANBN);
+        PrefixCache cache = new PrefixCache(pda, 16, 4, 4);
+        for (int n = 1; n <= 200; n++) {
+            for (int m = n - 2; m <= n + 2; m++) {
+                String input = "a".repeat(n) + "b".repeat(Math.max(m, 0));
+                assertEquals(pda.accepts(input), cache.accepts(input), input);
+                assertTrue(cache.getCheckpointCount() <= 16, cache.toString());
+            }
+        }
+        assertTrue(cache.getCheckpointHits() > 0, cache.toString());
+    }
+}